@@ -0,0 +1,134 @@
+package com.inspire.tasks.benchmarks;
+
+import com.inspire.tasks.auth.jwt.AuthTokenFilter;
+import com.inspire.tasks.auth.jwt.JwtUtils;
+import com.inspire.tasks.auth.session.TokenRevocationList;
+import com.inspire.tasks.roles.Role;
+import com.inspire.tasks.roles.RoleTypes;
+import com.inspire.tasks.user.SecurityVersionCache;
+import com.inspire.tasks.user.User;
+import com.inspire.tasks.user.UserDetailsCache;
+import com.inspire.tasks.user.UserDetailsImpl;
+import com.inspire.tasks.user.UserDetailsServiceImpl;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.Cookie;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request overhead of the authentication hot path: token generation, cookie extraction,
+ * principal building and the full AuthTokenFilter invocation against a stubbed user lookup.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AuthFilterBenchmark {
+
+    // claims mode builds the principal from the token, lookup mode goes through UserDetailsCache
+    @Param({"lookup", "claims"})
+    String mode;
+
+    // warm serves the token from the verified-token cache, cold verifies the HMAC and parses it every call
+    @Param({"warm", "cold"})
+    String tokenCache;
+
+    User user;
+
+    UserDetailsImpl principal;
+
+    JwtUtils jwtUtils;
+
+    AuthTokenFilter filter;
+
+    MockHttpServletRequest request;
+
+    MockHttpServletResponse response;
+
+    FilterChain chain;
+
+    @Setup
+    public void setup() {
+        boolean claimsMode = "claims".equals(mode);
+
+        user = new User("john", "john@example.com", "encoded-pass");
+        user.setId(1L);
+        user.setRoles(Set.of(new Role(RoleTypes.ROLE_USER), new Role(RoleTypes.ROLE_AUTHOR)));
+        principal = UserDetailsImpl.build(user);
+
+        jwtUtils = JwtFixtures.jwtUtils(claimsMode, "warm".equals(tokenCache));
+        filter = new AuthTokenFilter(jwtUtils,
+                new UserDetailsCache(new StubUserDetailsService(principal), 10_000, 300),
+                new StubSecurityVersionCache(),
+                new TokenRevocationList(null, 10_000, 0.01, 30_000));
+
+        request = new MockHttpServletRequest("GET", "/api/lib/books");
+        request.setCookies(new Cookie(JwtFixtures.COOKIE_NAME, jwtUtils.generateToken(principal)));
+        response = new MockHttpServletResponse();
+        chain = (req, res) -> { };
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtUtils.generateToken(principal);
+    }
+
+    @Benchmark
+    public boolean validateToken() {
+        return jwtUtils.validateJwtToken(request.getCookies()[0].getValue());
+    }
+
+    @Benchmark
+    public String getJwtFromCookies() {
+        return jwtUtils.getJwtFromCookies(request);
+    }
+
+    @Benchmark
+    public UserDetailsImpl buildPrincipal() {
+        return UserDetailsImpl.build(user);
+    }
+
+    @Benchmark
+    public Authentication filterInvocation() throws Exception {
+        filter.doFilter(request, response, chain);
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        // cleared inline rather than in a per-invocation teardown, which skews sub-microsecond results
+        SecurityContextHolder.clearContext();
+        return authentication;
+    }
+
+    static class StubUserDetailsService extends UserDetailsServiceImpl {
+
+        private final UserDetailsImpl principal;
+
+        StubUserDetailsService(UserDetailsImpl principal) {
+            this.principal = principal;
+        }
+
+        @Override
+        public UserDetails loadUserByUsername(String username) {
+            return principal;
+        }
+    }
+
+    static class StubSecurityVersionCache extends SecurityVersionCache {
+
+        StubSecurityVersionCache() {
+            super(null, 1, 1);
+        }
+
+        @Override
+        public boolean isCurrent(Long userId, long securityVersion) {
+            return true;
+        }
+    }
+}
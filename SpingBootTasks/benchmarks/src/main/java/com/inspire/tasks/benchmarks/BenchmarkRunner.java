@@ -0,0 +1,31 @@
+package com.inspire.tasks.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks with the GC profiler attached, so every result reports ops/s together with
+ * the allocation rate (gc.alloc.rate.norm), and writes them as JSON for regression checks.
+ *
+ * <pre>java -cp target/benchmarks.jar com.inspire.tasks.benchmarks.BenchmarkRunner [include-regex] [result-file]</pre>
+ */
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws RunnerException {
+        String include = args.length > 0 ? args[0] : ".*Benchmark.*";
+        String resultFile = args.length > 1 ? args[1] : "jmh-result.json";
+
+        Options options = new OptionsBuilder()
+                .include(include)
+                .addProfiler(GCProfiler.class)
+                .resultFormat(ResultFormatType.JSON)
+                .result(resultFile)
+                .build();
+
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,45 @@
+package com.inspire.tasks.benchmarks;
+
+import com.inspire.tasks.auth.jwt.JwtUtils;
+
+import java.lang.reflect.Field;
+
+/**
+ * Builds components outside the Spring context, filling in the values normally injected with @Value.
+ */
+final class JwtFixtures {
+
+    static final String SECRET = "c2VjcmV0LWtleS1mb3ItYmVuY2htYXJrcy10aGF0LWlzLWxvbmctZW5vdWdoLTEyMzQ1Ng==";
+
+    static final String COOKIE_NAME = "JWT";
+
+    private JwtFixtures() {
+    }
+
+    static JwtUtils jwtUtils(boolean claimsMode) {
+        return jwtUtils(claimsMode, true);
+    }
+
+    // without the cache, entries are created already expired, so every verification misses
+    static JwtUtils jwtUtils(boolean claimsMode, boolean tokenCache) {
+        JwtUtils jwtUtils = new JwtUtils();
+        setField(jwtUtils, "jwtSecret", SECRET);
+        setField(jwtUtils, "jwtExpirationMs", 86_400_000);
+        setField(jwtUtils, "jwtCookie", COOKIE_NAME);
+        setField(jwtUtils, "claimsMode", claimsMode);
+        setField(jwtUtils, "verifiedTokenCacheMaxSize", 10_000L);
+        setField(jwtUtils, "verifiedTokenCacheTtlSeconds", tokenCache ? 300L : 0L);
+        jwtUtils.init();
+        return jwtUtils;
+    }
+
+    static void setField(Object target, String name, Object value) {
+        try {
+            Field field = target.getClass().getDeclaredField(name);
+            field.setAccessible(true);
+            field.set(target, value);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot set " + name + " on " + target.getClass().getSimpleName(), e);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.inspire.tasks.benchmarks;
+
+import com.inspire.tasks.auth.jwt.JwtUtils;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.*;
+
+import java.security.Key;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the old validate-then-parse path, which rebuilt the key and parser on each call,
+ * with single-pass verification and with the verified-token cache.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtVerificationBenchmark {
+
+    JwtUtils jwtUtils;
+
+    JwtParser parser;
+
+    String token;
+
+    @Setup
+    public void setup() {
+        jwtUtils = JwtFixtures.jwtUtils(false);
+        parser = Jwts.parserBuilder().setSigningKey(Keys.hmacShaKeyFor(Decoders.BASE64.decode(JwtFixtures.SECRET))).build();
+        token = jwtUtils.generateTokenFromUsername("john");
+    }
+
+    @Benchmark
+    public String validateThenParseRebuildingKey() {
+        Key validateKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(JwtFixtures.SECRET));
+        Jwts.parserBuilder().setSigningKey(validateKey).build().parse(token);
+
+        Key parseKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(JwtFixtures.SECRET));
+        return Jwts.parserBuilder().setSigningKey(parseKey).build()
+                .parseClaimsJws(token).getBody().getSubject();
+    }
+
+    @Benchmark
+    public String singlePassPrecomputedParser() {
+        return parser.parseClaimsJws(token).getBody().getSubject();
+    }
+
+    @Benchmark
+    public String singlePassCached() {
+        return jwtUtils.verifyJwtToken(token).getSubject();
+    }
+}
@@ -1,12 +1,17 @@
 package com.inspire.tasks.auth;
 
 import com.inspire.tasks.common.exception.BadRequestException;
+import com.inspire.tasks.common.exception.ServiceUnavailableException;
 import com.inspire.tasks.common.exception.UnauthorizedException;
 import com.inspire.tasks.auth.dto.LoginRequest;
 import com.inspire.tasks.auth.dto.SignupRequest;
 import com.inspire.tasks.common.MessageResponse;
 import com.inspire.tasks.user.*;
 import com.inspire.tasks.auth.jwt.JwtUtils;
+import com.inspire.tasks.auth.session.SessionRegistry;
+import com.inspire.tasks.auth.session.TokenRevocationList;
+import io.jsonwebtoken.Claims;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 
 import lombok.extern.slf4j.Slf4j;
@@ -27,8 +32,6 @@ import org.springframework.web.bind.annotation.*;
 @Slf4j
 public class AuthController {
 
-    private boolean activeSession;
-
     @Autowired
     AuthenticationManager authenticationManager;
 
@@ -47,6 +50,12 @@ public class AuthController {
     @Autowired
     UserService userService;
 
+    @Autowired
+    SessionRegistry sessionRegistry;
+
+    @Autowired
+    TokenRevocationList tokenRevocationList;
+
     @PostMapping("/signin")
     public ResponseEntity<?> authenticateUser(@Valid @RequestBody LoginRequest loginRequest) {
         User user = userRepository.findByUsername(loginRequest.getUsername()).
@@ -57,27 +66,28 @@ public class AuthController {
                     "This account uses OAuth2 login. Please sign in with Google."
             );
         }
-        if(!activeSession) {
-            try {
-                Authentication authentication = authenticationManager
-                        .authenticate(new UsernamePasswordAuthenticationToken(loginRequest.getUsername(), loginRequest.getPassword()));
+        try {
+            Authentication authentication = authenticationManager
+                    .authenticate(new UsernamePasswordAuthenticationToken(loginRequest.getUsername(), loginRequest.getPassword()));
 
-                SecurityContextHolder.getContext().setAuthentication(authentication);
+            SecurityContextHolder.getContext().setAuthentication(authentication);
 
-                UserDetailsImpl userDetails = (UserDetailsImpl) authentication.getPrincipal();
+            UserDetailsImpl userDetails = (UserDetailsImpl) authentication.getPrincipal();
 
-                ResponseCookie jwtCookie = jwtUtils.generateJwtCookie(userDetails);
+            ResponseCookie jwtCookie = jwtUtils.generateJwtCookie(userDetails);
+            Claims claims = jwtUtils.verifyJwtToken(jwtCookie.getValue());
 
-                activeSession = true;
-                log.info("User: {} logged in", loginRequest.getUsername());
-                return ResponseEntity.ok().header(HttpHeaders.SET_COOKIE, jwtCookie.toString())
-                        .body(new MessageResponse(200, "User logged in successfully!"));
-            } catch (BadCredentialsException e) {
-                throw new UnauthorizedException("Invalid username or password");
+            // signing in past the per-user limit signs the oldest session out
+            if (claims == null || !sessionRegistry.register(claims.getSubject(), claims.getId(),
+                    claims.getExpiration().getTime(), tokenRevocationList::revoke)) {
+                throw new ServiceUnavailableException("Error: Too many active sessions, try again later");
             }
-        }
-        else{
-            throw new BadRequestException("Error: Only 1 active session is allowed");
+
+            log.info("User: {} logged in", loginRequest.getUsername());
+            return ResponseEntity.ok().header(HttpHeaders.SET_COOKIE, jwtCookie.toString())
+                    .body(new MessageResponse(200, "User logged in successfully!"));
+        } catch (BadCredentialsException e) {
+            throw new UnauthorizedException("Invalid username or password");
         }
     }
 
@@ -87,9 +97,15 @@ public class AuthController {
     }
 
     @GetMapping("/signout")
-    public ResponseEntity<?> logoutUser() {
-        if(activeSession) {
-            activeSession = false;
+    public ResponseEntity<?> logoutUser(HttpServletRequest request) {
+        String jwt = jwtUtils.getJwtFromCookies(request);
+        Claims claims = jwt != null ? jwtUtils.verifyJwtToken(jwt) : null;
+
+        // the token may have been issued by another node, so it is revoked even if this node holds no session for it
+        if (claims != null && claims.getId() != null && !tokenRevocationList.isRevoked(claims.getId())) {
+            tokenRevocationList.revoke(claims.getId(), claims.getExpiration().toInstant());
+            sessionRegistry.remove(claims.getSubject(), claims.getId());
+
             ResponseCookie cookie = jwtUtils.getCleanJwtCookie();
             log.info("Current user has signed out");
             return ResponseEntity.ok().header(HttpHeaders.SET_COOKIE, cookie.toString())
@@ -1,7 +1,11 @@
 package com.inspire.tasks.auth.jwt;
 
+import com.inspire.tasks.auth.password.BoundedPasswordEncoder;
+import com.inspire.tasks.auth.ratelimit.AuthRateLimitFilter;
 import com.inspire.tasks.user.UserDetailsServiceImpl;
+import jakarta.servlet.DispatcherType;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.annotation.Order;
@@ -12,7 +16,6 @@ import org.springframework.security.config.annotation.method.configuration.Enabl
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
@@ -26,6 +29,19 @@ public class ApiSecurityConfig {
     @Autowired
     private AuthTokenFilter authenticationJwtTokenFilter;
 
+    @Autowired
+    private AuthRateLimitFilter authRateLimitFilter;
+
+    // 0 means half the available processors, so a login storm leaves the other half to serve requests
+    @Value("${javaTasks.app.passwordHashing.threads:0}")
+    private int passwordHashingThreads;
+
+    @Value("${javaTasks.app.passwordHashing.queueSize:64}")
+    private int passwordHashingQueueSize;
+
+    @Value("${javaTasks.app.passwordHashing.timeoutMs:5000}")
+    private long passwordHashingTimeoutMs;
+
     @Bean
     public DaoAuthenticationProvider authenticationProvider() {
         DaoAuthenticationProvider auth = new DaoAuthenticationProvider();
@@ -40,8 +56,11 @@ public class ApiSecurityConfig {
     }
 
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public BoundedPasswordEncoder passwordEncoder() {
+        int threads = passwordHashingThreads > 0
+                ? passwordHashingThreads
+                : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        return new BoundedPasswordEncoder(new BCryptPasswordEncoder(), threads, passwordHashingQueueSize, passwordHashingTimeoutMs);
     }
 
     @Bean
@@ -54,10 +73,15 @@ public class ApiSecurityConfig {
                         session.sessionCreationPolicy(SessionCreationPolicy.STATELESS)
                 )
                 .authorizeHttpRequests(auth -> auth
+                        // the JWT filter runs once per request, so the dispatch that writes an async
+                        // result (Mono, StreamingResponseBody) has no authentication of its own; the
+                        // request that started it was already authorized
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                         .requestMatchers("/api/auth/**").permitAll()
                         .anyRequest().authenticated()
                 )
                 .authenticationProvider(authenticationProvider())
+                .addFilterBefore(authRateLimitFilter, UsernamePasswordAuthenticationFilter.class)
                 .addFilterBefore(authenticationJwtTokenFilter, UsernamePasswordAuthenticationFilter.class);
 
         return http.build();
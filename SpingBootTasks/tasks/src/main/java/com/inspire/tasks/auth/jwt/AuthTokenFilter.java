@@ -1,8 +1,14 @@
 package com.inspire.tasks.auth.jwt;
 
 import java.io.IOException;
-
-import com.inspire.tasks.user.UserDetailsServiceImpl;
+import java.util.Collection;
+import java.util.List;
+
+import com.inspire.tasks.auth.session.TokenRevocationList;
+import com.inspire.tasks.user.SecurityVersionCache;
+import com.inspire.tasks.user.UserDetailsCache;
+import com.inspire.tasks.user.UserDetailsImpl;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -10,6 +16,8 @@ import jakarta.servlet.http.HttpServletResponse;
 
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
@@ -23,12 +31,19 @@ public class AuthTokenFilter extends OncePerRequestFilter {
 
     JwtUtils jwtUtils;
 
-    UserDetailsServiceImpl userDetailsService;
+    UserDetailsCache userDetailsCache;
+
+    SecurityVersionCache securityVersionCache;
 
+    TokenRevocationList tokenRevocationList;
 
-    public AuthTokenFilter(JwtUtils jwtUtils, UserDetailsServiceImpl userDetailsService) {
+
+    public AuthTokenFilter(JwtUtils jwtUtils, UserDetailsCache userDetailsCache, SecurityVersionCache securityVersionCache,
+                           TokenRevocationList tokenRevocationList) {
         this.jwtUtils = jwtUtils;
-        this.userDetailsService = userDetailsService;
+        this.userDetailsCache = userDetailsCache;
+        this.securityVersionCache = securityVersionCache;
+        this.tokenRevocationList = tokenRevocationList;
     }
 
 
@@ -36,19 +51,26 @@ public class AuthTokenFilter extends OncePerRequestFilter {
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
         try {
             String jwt = parseJwt(request);
-            if (jwt != null && jwtUtils.validateJwtToken(jwt)) {
-                String username = jwtUtils.getUserNameFromJwtToken(jwt);
-
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+            Claims claims = jwt != null ? jwtUtils.verifyJwtToken(jwt) : null;
+            if (claims != null && claims.getId() != null && tokenRevocationList.isRevoked(claims.getId())) {
+                log.warn("Rejected revoked token for user {}", claims.getSubject());
+                claims = null;
+            }
+            if (claims != null) {
+                UserDetails userDetails = jwtUtils.isClaimsMode()
+                        ? loadUserFromClaims(claims)
+                        : userDetailsCache.loadUserByUsername(claims.getSubject());
 
-                UsernamePasswordAuthenticationToken authentication =
-                        new UsernamePasswordAuthenticationToken(userDetails,
-                                null,
-                                userDetails.getAuthorities());
+                if (userDetails != null) {
+                    UsernamePasswordAuthenticationToken authentication =
+                            new UsernamePasswordAuthenticationToken(userDetails,
+                                    null,
+                                    userDetails.getAuthorities());
 
-                authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                    authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
 
-                SecurityContextHolder.getContext().setAuthentication(authentication);
+                    SecurityContextHolder.getContext().setAuthentication(authentication);
+                }
             }
         } catch (Exception e) {
             log.error("Cannot set user authentication: {}", e.getMessage());
@@ -57,6 +79,28 @@ public class AuthTokenFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
+    UserDetails loadUserFromClaims(Claims claims) {
+        Number userId = claims.get(JwtUtils.USER_ID_CLAIM, Number.class);
+
+        // tokens issued before claims mode was switched on only carry the subject
+        if (userId == null) {
+            return userDetailsCache.loadUserByUsername(claims.getSubject());
+        }
+
+        long securityVersion = claims.get(JwtUtils.SECURITY_VERSION_CLAIM, Number.class).longValue();
+        if (!securityVersionCache.isCurrent(userId.longValue(), securityVersion)) {
+            log.warn("Rejected stale token for user {}", claims.getSubject());
+            return null;
+        }
+
+        List<?> roles = claims.get(JwtUtils.ROLES_CLAIM, List.class);
+        Collection<GrantedAuthority> authorities = roles.stream()
+                .map(role -> (GrantedAuthority) new SimpleGrantedAuthority(role.toString()))
+                .toList();
+
+        return new UserDetailsImpl(userId.longValue(), claims.getSubject(), null, null, authorities, securityVersion);
+    }
+
     private String parseJwt(HttpServletRequest request) {
         return jwtUtils.getJwtFromCookies(request);
     }
@@ -1,9 +1,22 @@
 package com.inspire.tasks.auth.jwt;
 
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Base64;
 import java.util.Date;
-
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.inspire.tasks.common.metrics.MetricsSource;
 import com.inspire.tasks.user.UserDetailsImpl;
+import jakarta.annotation.PostConstruct;
 import jakarta.servlet.http.Cookie;
 import jakarta.servlet.http.HttpServletRequest;
 
@@ -11,15 +24,17 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.ResponseCookie;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.stereotype.Component;
 import org.springframework.web.util.WebUtils;
 
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SignatureException;
 
 @Component
-public class JwtUtils {
+public class JwtUtils implements MetricsSource {
     private static final Logger logger = LoggerFactory.getLogger(JwtUtils.class);
 
     @Value("${javaTasks.app.jwtSecret}")
@@ -31,6 +46,44 @@ public class JwtUtils {
     @Value("${javaTasks.app.jwtCookieName}")
     private String jwtCookie;
 
+    // when enabled, tokens carry the user id, roles and security version so the filter can skip the DB
+    @Value("${javaTasks.app.jwtClaimsMode:false}")
+    private boolean claimsMode;
+
+    public static final String USER_ID_CLAIM = "uid";
+
+    public static final String ROLES_CLAIM = "roles";
+
+    public static final String SECURITY_VERSION_CLAIM = "sv";
+
+    @Value("${javaTasks.app.verifiedTokenCache.maxSize:10000}")
+    private long verifiedTokenCacheMaxSize;
+
+    @Value("${javaTasks.app.verifiedTokenCache.ttlSeconds:300}")
+    private long verifiedTokenCacheTtlSeconds;
+
+    private Key signingKey;
+
+    private JwtParser parser;
+
+    private Cache<String, Claims> verifiedTokens;
+
+    // the key and parser are immutable, so they are built once instead of on every call
+    @PostConstruct
+    public void init() {
+        signingKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret));
+        parser = Jwts.parserBuilder().setSigningKey(signingKey).build();
+        verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(verifiedTokenCacheMaxSize)
+                .expireAfter(new TokenExpiry(Duration.ofSeconds(verifiedTokenCacheTtlSeconds)))
+                .recordStats()
+                .build();
+    }
+
+    public boolean isClaimsMode() {
+        return claimsMode;
+    }
+
     public String getJwtFromCookies(HttpServletRequest request) {
         Cookie cookie = WebUtils.getCookie(request, jwtCookie);
         if (cookie != null) {
@@ -41,7 +94,7 @@ public class JwtUtils {
     }
 
     public ResponseCookie generateJwtCookie(UserDetailsImpl userPrincipal) {
-        String jwt = generateTokenFromUsername(userPrincipal.getUsername());
+        String jwt = generateToken(userPrincipal);
         ResponseCookie cookie = ResponseCookie.from(jwtCookie, jwt).path("/api").maxAge(24 * 60 * 60).httpOnly(true).build();
         return cookie;
     }
@@ -52,33 +105,101 @@ public class JwtUtils {
     }
 
     public String getUserNameFromJwtToken(String token) {
-        return Jwts.parserBuilder().setSigningKey(key()).build()
-                .parseClaimsJws(token).getBody().getSubject();
+        Claims claims = verifyJwtToken(token);
+        return claims != null ? claims.getSubject() : null;
     }
 
     private Key key() {
-        return Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret));
+        return signingKey;
     }
 
     public boolean validateJwtToken(String authToken) {
+        return verifyJwtToken(authToken) != null;
+    }
+
+    /**
+     * Parses and verifies the token once and returns its claims, or null when the token is invalid.
+     * Tokens verified recently are served from the cache without recomputing the HMAC.
+     */
+    public Claims verifyJwtToken(String authToken) {
+        if (authToken == null || authToken.isEmpty()) {
+            logger.error("JWT claims string is empty");
+            return null;
+        }
+
+        String digest = digest(authToken);
+        Claims cached = verifiedTokens.getIfPresent(digest);
+        if (cached != null) {
+            return cached;
+        }
+
         try {
-            Jwts.parserBuilder().setSigningKey(key()).build().parse(authToken);
-            return true;
+            Claims claims = parser.parseClaimsJws(authToken).getBody();
+            verifiedTokens.put(digest, claims);
+            return claims;
         } catch (MalformedJwtException e) {
             logger.error("Invalid JWT token: {}", e.getMessage());
         } catch (ExpiredJwtException e) {
             logger.error("JWT token is expired: {}", e.getMessage());
         } catch (UnsupportedJwtException e) {
             logger.error("JWT token is unsupported: {}", e.getMessage());
+        } catch (SignatureException e) {
+            logger.error("Invalid JWT signature: {}", e.getMessage());
         } catch (IllegalArgumentException e) {
             logger.error("JWT claims string is empty: {}", e.getMessage());
         }
 
-        return false;
+        return null;
+    }
+
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public String metricsName() {
+        return "verifiedTokenCache";
+    }
+
+    @Override
+    public Map<String, Object> metrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("size", verifiedTokens.estimatedSize());
+        metrics.put("hits", verifiedTokens.stats().hitCount());
+        metrics.put("misses", verifiedTokens.stats().missCount());
+        metrics.put("hitRate", verifiedTokens.stats().hitRate());
+        return metrics;
+    }
+
+    public String generateToken(UserDetailsImpl userPrincipal) {
+        return claimsMode ? generateTokenFromPrincipal(userPrincipal) : generateTokenFromUsername(userPrincipal.getUsername());
+    }
+
+    public String generateTokenFromPrincipal(UserDetailsImpl userPrincipal) {
+        List<String> roles = userPrincipal.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .toList();
+
+        return Jwts.builder()
+                .setId(UUID.randomUUID().toString())
+                .setSubject(userPrincipal.getUsername())
+                .claim(USER_ID_CLAIM, userPrincipal.getId())
+                .claim(ROLES_CLAIM, roles)
+                .claim(SECURITY_VERSION_CLAIM, userPrincipal.getSecurityVersion())
+                .setIssuedAt(new Date())
+                .setExpiration(new Date((new Date()).getTime() + jwtExpirationMs))
+                .signWith(key(), SignatureAlgorithm.HS256)
+                .compact();
     }
 
     public String generateTokenFromUsername(String username) {
         return Jwts.builder()
+                .setId(UUID.randomUUID().toString())
                 .setSubject(username)
                 .setIssuedAt(new Date())
                 .setExpiration(new Date((new Date()).getTime() + jwtExpirationMs))
@@ -0,0 +1,39 @@
+package com.inspire.tasks.auth.jwt;
+
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.jsonwebtoken.Claims;
+
+import java.time.Duration;
+import java.util.Date;
+
+/**
+ * Keeps a verified token in the cache for the configured TTL, but never past the token's own expiry.
+ */
+class TokenExpiry implements Expiry<String, Claims> {
+
+    private final long ttlNanos;
+
+    TokenExpiry(Duration ttl) {
+        this.ttlNanos = ttl.toNanos();
+    }
+
+    @Override
+    public long expireAfterCreate(String key, Claims claims, long currentTime) {
+        Date expiration = claims.getExpiration();
+        if (expiration == null) {
+            return ttlNanos;
+        }
+        long remainingNanos = Duration.ofMillis(expiration.getTime() - System.currentTimeMillis()).toNanos();
+        return Math.max(0, Math.min(ttlNanos, remainingNanos));
+    }
+
+    @Override
+    public long expireAfterUpdate(String key, Claims claims, long currentTime, long currentDuration) {
+        return currentDuration;
+    }
+
+    @Override
+    public long expireAfterRead(String key, Claims claims, long currentTime, long currentDuration) {
+        return currentDuration;
+    }
+}
@@ -2,10 +2,11 @@ package com.inspire.tasks.auth.oauth;
 
 import com.inspire.tasks.auth.jwt.JwtUtils;
 import com.inspire.tasks.roles.Role;
-import com.inspire.tasks.roles.RoleRepository;
+import com.inspire.tasks.roles.RoleRegistry;
 import com.inspire.tasks.roles.RoleTypes;
 import com.inspire.tasks.user.AuthProvider;
 import com.inspire.tasks.user.User;
+import com.inspire.tasks.user.UserDetailsImpl;
 import com.inspire.tasks.user.UserRepository;
 import jakarta.servlet.http.Cookie;
 import jakarta.servlet.http.HttpServletRequest;
@@ -23,12 +24,12 @@ import java.util.Set;
 public class OAuth2SuccessHandler extends SimpleUrlAuthenticationSuccessHandler {
 
     UserRepository userRepository;
-    RoleRepository roleRepository;
+    RoleRegistry roleRegistry;
     JwtUtils jwtUtils;
 
-    public OAuth2SuccessHandler(UserRepository userRepository, RoleRepository roleRepository, JwtUtils jwtUtils) {
+    public OAuth2SuccessHandler(UserRepository userRepository, RoleRegistry roleRegistry, JwtUtils jwtUtils) {
         this.userRepository = userRepository;
-        this.roleRepository = roleRepository;
+        this.roleRegistry = roleRegistry;
         this.jwtUtils = jwtUtils;
     }
 
@@ -42,7 +43,7 @@ public class OAuth2SuccessHandler extends SimpleUrlAuthenticationSuccessHandler
         User user = userRepository.findByEmailWithRoles(email)
                 .orElseGet(() -> createNewUser(email, name, provider));
 
-        String jwt = jwtUtils.generateTokenFromUsername(user.getUsername());
+        String jwt = jwtUtils.generateToken(UserDetailsImpl.build(user));
 
         Cookie jwtCookie = new Cookie("JWT", jwt);
         jwtCookie.setHttpOnly(true);
@@ -55,8 +56,7 @@ public class OAuth2SuccessHandler extends SimpleUrlAuthenticationSuccessHandler
     }
 
     private User createNewUser(String email, String name, String provider) {
-        Role userRole = roleRepository.findByName(RoleTypes.ROLE_USER)
-                .orElseThrow();
+        Role userRole = roleRegistry.get(RoleTypes.ROLE_USER);
 //        if (email.startsWith(""))
         User user = new User();
         user.setEmail(email);
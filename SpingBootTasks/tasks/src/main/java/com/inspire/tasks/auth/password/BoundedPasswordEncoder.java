@@ -0,0 +1,130 @@
+package com.inspire.tasks.auth.password;
+
+import com.inspire.tasks.common.exception.ServiceUnavailableException;
+import com.inspire.tasks.common.metrics.MetricsSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs password hashing and verification on a dedicated, size-limited pool with a bounded queue,
+ * so a burst of signins or signups cannot occupy every request thread with BCrypt work.
+ * When the queue is full callers fail fast with a {@link ServiceUnavailableException}.
+ */
+@Slf4j
+public class BoundedPasswordEncoder implements PasswordEncoder, MetricsSource, DisposableBean {
+
+    private final PasswordEncoder delegate;
+
+    private final ThreadPoolExecutor executor;
+
+    private final long timeoutMs;
+
+    private final LongAdder completed = new LongAdder();
+
+    private final LongAdder rejected = new LongAdder();
+
+    private final LongAdder hashNanos = new LongAdder();
+
+    private final LongAdder queueWaitNanos = new LongAdder();
+
+    private final AtomicLong maxHashNanos = new AtomicLong();
+
+    public BoundedPasswordEncoder(PasswordEncoder delegate, int threads, int queueSize, long timeoutMs) {
+        this.delegate = delegate;
+        this.timeoutMs = timeoutMs;
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueSize),
+                new CustomizableThreadFactory("password-hash-"),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return run(() -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return run(() -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    private <T> T run(Callable<T> task) {
+        long submittedAt = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                long startedAt = System.nanoTime();
+                queueWaitNanos.add(startedAt - submittedAt);
+                try {
+                    return task.call();
+                } finally {
+                    long elapsed = System.nanoTime() - startedAt;
+                    hashNanos.add(elapsed);
+                    maxHashNanos.accumulateAndGet(elapsed, Math::max);
+                    completed.increment();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            log.warn("Password hashing queue is full, rejecting request");
+            throw new ServiceUnavailableException("Server is busy, please try again shortly");
+        }
+
+        try {
+            return future.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            rejected.increment();
+            log.warn("Password hashing timed out after {} ms", timeoutMs);
+            throw new ServiceUnavailableException("Server is busy, please try again shortly");
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException("Password hashing was interrupted");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    @Override
+    public String metricsName() {
+        return "passwordHashing";
+    }
+
+    @Override
+    public Map<String, Object> metrics() {
+        long count = completed.sum();
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("threads", executor.getMaximumPoolSize());
+        metrics.put("active", executor.getActiveCount());
+        metrics.put("queueDepth", executor.getQueue().size());
+        metrics.put("queueCapacity", executor.getQueue().size() + executor.getQueue().remainingCapacity());
+        metrics.put("completed", count);
+        metrics.put("rejected", rejected.sum());
+        metrics.put("avgHashMs", count == 0 ? 0.0 : hashNanos.sum() / 1_000_000.0 / count);
+        metrics.put("maxHashMs", maxHashNanos.get() / 1_000_000.0);
+        metrics.put("avgQueueWaitMs", count == 0 ? 0.0 : queueWaitNanos.sum() / 1_000_000.0 / count);
+        return metrics;
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdown();
+    }
+}
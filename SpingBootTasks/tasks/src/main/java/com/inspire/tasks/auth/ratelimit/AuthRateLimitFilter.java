@@ -0,0 +1,155 @@
+package com.inspire.tasks.auth.ratelimit;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.inspire.tasks.common.MessageResponse;
+import com.inspire.tasks.common.metrics.MetricsSource;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Rejects over-limit callers of /api/auth/** with 429 before any repository or password hashing work.
+ * Every call is limited per client IP; signin and signup are additionally limited per username.
+ * Their bodies are read up to a small cap whatever Content-Length says, and larger ones are refused
+ * with 413, so neither chunking nor padding a body gets a caller past the username limit.
+ * The client IP is the remote address, so behind a proxy set server.forward-headers-strategy.
+ */
+@Component
+@Slf4j
+public class AuthRateLimitFilter extends OncePerRequestFilter implements MetricsSource {
+
+    private static final int MAX_INSPECTED_BODY_BYTES = 16 * 1024;
+
+    ObjectMapper objectMapper;
+
+    private final boolean enabled;
+
+    private final RateLimiter ipLimiter;
+
+    private final RateLimiter usernameLimiter;
+
+    private final LongAdder rejectedByIp = new LongAdder();
+
+    private final LongAdder rejectedByUsername = new LongAdder();
+
+    public AuthRateLimitFilter(ObjectMapper objectMapper,
+                               @Value("${javaTasks.app.rateLimit.enabled:true}") boolean enabled,
+                               @Value("${javaTasks.app.rateLimit.ip.capacity:20}") int ipCapacity,
+                               @Value("${javaTasks.app.rateLimit.ip.refillPerMinute:60}") int ipRefillPerMinute,
+                               @Value("${javaTasks.app.rateLimit.username.capacity:5}") int usernameCapacity,
+                               @Value("${javaTasks.app.rateLimit.username.refillPerMinute:10}") int usernameRefillPerMinute,
+                               @Value("${javaTasks.app.rateLimit.maxKeys:100000}") int maxKeys) {
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.ipLimiter = new RateLimiter(ipCapacity, ipRefillPerMinute, maxKeys);
+        this.usernameLimiter = new RateLimiter(usernameCapacity, usernameRefillPerMinute, maxKeys);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || !request.getRequestURI().startsWith("/api/auth/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        long waitNanos = ipLimiter.tryAcquire(request.getRemoteAddr());
+        if (waitNanos > 0) {
+            rejectedByIp.increment();
+            reject(response, waitNanos);
+            return;
+        }
+
+        if (hasUsernameInBody(request)) {
+            if (request.getContentLengthLong() > MAX_INSPECTED_BODY_BYTES) {
+                reject(response, HttpServletResponse.SC_REQUEST_ENTITY_TOO_LARGE, "Request body is too large");
+                return;
+            }
+            // chunked bodies have no Content-Length, so the cap is enforced while reading
+            CachedBodyHttpServletRequest cachedRequest = new CachedBodyHttpServletRequest(request, MAX_INSPECTED_BODY_BYTES);
+            if (cachedRequest.isTruncated()) {
+                reject(response, HttpServletResponse.SC_REQUEST_ENTITY_TOO_LARGE, "Request body is too large");
+                return;
+            }
+            String username = readUsername(cachedRequest.getBody());
+            if (username != null) {
+                waitNanos = usernameLimiter.tryAcquire(username.toLowerCase(Locale.ROOT));
+                if (waitNanos > 0) {
+                    rejectedByUsername.increment();
+                    log.warn("Rate limit reached for username {}", username);
+                    reject(response, waitNanos);
+                    return;
+                }
+            }
+            request = cachedRequest;
+        }
+
+        filterChain.doFilter(request, response);
+    }
+
+    private boolean hasUsernameInBody(HttpServletRequest request) {
+        String uri = request.getRequestURI();
+        return "POST".equals(request.getMethod())
+                && (uri.equals("/api/auth/signin") || uri.equals("/api/auth/signup"))
+                && request.getContentLengthLong() != 0;
+    }
+
+    private String readUsername(byte[] body) {
+        try {
+            JsonNode username = objectMapper.readTree(body).get("username");
+            return username != null && username.isTextual() ? username.asText() : null;
+        } catch (IOException e) {
+            // malformed bodies are left for the controller to reject
+            return null;
+        }
+    }
+
+    private void reject(HttpServletResponse response, long waitNanos) throws IOException {
+        long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        reject(response, 429, "Too many requests, please try again later");
+    }
+
+    private void reject(HttpServletResponse response, int status, String message) throws IOException {
+        response.setStatus(status);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), new MessageResponse(status, message));
+    }
+
+    @Scheduled(fixedDelayString = "${javaTasks.app.rateLimit.evictMs:60000}")
+    public void evictIdleBuckets() {
+        ipLimiter.evictIdle();
+        usernameLimiter.evictIdle();
+    }
+
+    @Override
+    public String metricsName() {
+        return "authRateLimit";
+    }
+
+    @Override
+    public Map<String, Object> metrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("ipBuckets", ipLimiter.size());
+        metrics.put("usernameBuckets", usernameLimiter.size());
+        metrics.put("rejectedByIp", rejectedByIp.sum());
+        metrics.put("rejectedByUsername", rejectedByUsername.sum());
+        return metrics;
+    }
+}
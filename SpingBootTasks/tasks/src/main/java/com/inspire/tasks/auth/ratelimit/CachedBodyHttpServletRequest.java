@@ -0,0 +1,87 @@
+package com.inspire.tasks.auth.ratelimit;
+
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Reads the (small) request body up front so it can be inspected by a filter and still be read by the controller.
+ * At most maxBytes are kept; a longer body is only read one byte past the cap and reported as truncated.
+ */
+class CachedBodyHttpServletRequest extends HttpServletRequestWrapper {
+
+    private final byte[] body;
+
+    private final boolean truncated;
+
+    CachedBodyHttpServletRequest(HttpServletRequest request, int maxBytes) throws IOException {
+        super(request);
+        byte[] read = request.getInputStream().readNBytes(maxBytes + 1);
+        this.truncated = read.length > maxBytes;
+        this.body = truncated ? Arrays.copyOf(read, maxBytes) : read;
+    }
+
+    byte[] getBody() {
+        return body;
+    }
+
+    boolean isTruncated() {
+        return truncated;
+    }
+
+    @Override
+    public ServletInputStream getInputStream() {
+        ByteArrayInputStream in = new ByteArrayInputStream(body);
+        return new ServletInputStream() {
+            @Override
+            public boolean isFinished() {
+                return in.available() == 0;
+            }
+
+            @Override
+            public boolean isReady() {
+                return true;
+            }
+
+            // the whole body is already in memory, so it is available, and then finished, straight away
+            @Override
+            public void setReadListener(ReadListener readListener) {
+                try {
+                    if (!isFinished()) {
+                        readListener.onDataAvailable();
+                    }
+                    if (isFinished()) {
+                        readListener.onAllDataRead();
+                    }
+                } catch (IOException e) {
+                    readListener.onError(e);
+                }
+            }
+
+            @Override
+            public int read() {
+                return in.read();
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) {
+                return in.read(b, off, len);
+            }
+        };
+    }
+
+    @Override
+    public BufferedReader getReader() {
+        Charset charset = getCharacterEncoding() != null ? Charset.forName(getCharacterEncoding()) : StandardCharsets.UTF_8;
+        return new BufferedReader(new InputStreamReader(getInputStream(), charset));
+    }
+}
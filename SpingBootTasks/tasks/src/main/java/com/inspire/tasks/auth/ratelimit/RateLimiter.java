@@ -0,0 +1,77 @@
+package com.inspire.tasks.auth.ratelimit;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Token buckets keyed by caller (IP address, username). Each bucket is a single {@link AtomicLong}
+ * holding the time at which it will be full again (the GCRA formulation of a token bucket), so taking
+ * a token and refilling are one compare-and-set with no locks. Buckets that have refilled completely
+ * carry no state and are dropped by {@link #evictIdle()}.
+ */
+public class RateLimiter {
+
+    private final ConcurrentHashMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+
+    // nanos needed to earn back one token
+    private final long emissionIntervalNanos;
+
+    // how far ahead of now the bucket may be drawn down, i.e. capacity - 1 tokens
+    private final long burstToleranceNanos;
+
+    private final int maxKeys;
+
+    private final LongSupplier nanoClock;
+
+    public RateLimiter(int capacity, int refillPerMinute, int maxKeys) {
+        this(capacity, refillPerMinute, maxKeys, System::nanoTime);
+    }
+
+    RateLimiter(int capacity, int refillPerMinute, int maxKeys, LongSupplier nanoClock) {
+        this.emissionIntervalNanos = TimeUnit.MINUTES.toNanos(1) / Math.max(1, refillPerMinute);
+        this.burstToleranceNanos = emissionIntervalNanos * (Math.max(1, capacity) - 1);
+        this.maxKeys = maxKeys;
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Takes one token for the key, returning 0 when allowed or the nanos to wait before retrying.
+     */
+    public long tryAcquire(String key) {
+        long now = nanoClock.getAsLong();
+        AtomicLong bucket = buckets.get(key);
+        if (bucket == null) {
+            if (buckets.size() >= maxKeys) {
+                evictIdle();
+                if (buckets.size() >= maxKeys) {
+                    // fail closed: under a flood of distinct keys nobody new gets in until buckets drain
+                    return emissionIntervalNanos;
+                }
+            }
+            bucket = buckets.computeIfAbsent(key, k -> new AtomicLong(now));
+        }
+
+        while (true) {
+            long fullAt = bucket.get();
+            long theoreticalArrival = Math.max(fullAt, now);
+            long drawnAhead = theoreticalArrival - now;
+            if (drawnAhead > burstToleranceNanos) {
+                return drawnAhead - burstToleranceNanos;
+            }
+            if (bucket.compareAndSet(fullAt, theoreticalArrival + emissionIntervalNanos)) {
+                return 0;
+            }
+        }
+    }
+
+    public void evictIdle() {
+        long now = nanoClock.getAsLong();
+        buckets.values().removeIf(bucket -> bucket.get() <= now);
+    }
+
+    public int size() {
+        return buckets.size();
+    }
+}
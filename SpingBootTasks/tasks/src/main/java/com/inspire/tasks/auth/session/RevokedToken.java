@@ -0,0 +1,35 @@
+package com.inspire.tasks.auth.session;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+@Entity
+@Table(name = "revoked_tokens", indexes = {
+        @Index(columnList = "revoked_at"),
+        @Index(columnList = "expires_at")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+public class RevokedToken {
+
+    @Id
+    @Column(name = "token_id", length = 36)
+    String tokenId;
+
+    @Column(name = "expires_at", nullable = false)
+    Instant expiresAt;
+
+    @Column(name = "revoked_at", nullable = false)
+    Instant revokedAt;
+
+    public RevokedToken(String tokenId, Instant expiresAt, Instant revokedAt) {
+        this.tokenId = tokenId;
+        this.expiresAt = expiresAt;
+        this.revokedAt = revokedAt;
+    }
+}
@@ -0,0 +1,203 @@
+package com.inspire.tasks.auth.session;
+
+import com.inspire.tasks.common.metrics.MetricsSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+
+/**
+ * Active sessions per user, keyed by the token id (jti) of the issued JWT.
+ * Updates for one user are serialized by {@link ConcurrentHashMap#compute}, so different users never contend.
+ * Expired sessions are dropped by a hashed timing wheel swept once per tick, and the total number of
+ * sessions is capped so memory stays bounded.
+ *
+ * A user at the per-user limit who signs in again replaces their oldest session rather than being
+ * turned away, so losing a cookie or switching browsers never locks anyone out until the token expires.
+ */
+@Component
+@Slf4j
+public class SessionRegistry implements MetricsSource {
+
+    private final ConcurrentHashMap<String, Map<String, Session>> sessions = new ConcurrentHashMap<>();
+
+    private final AtomicInteger totalSessions = new AtomicInteger();
+
+    private final Queue<Session>[] wheel;
+
+    private final long tickMs;
+
+    private final int maxSessionsPerUser;
+
+    private final int maxSessions;
+
+    private long lastSweptTick;
+
+    @SuppressWarnings("unchecked")
+    public SessionRegistry(@Value("${javaTasks.app.sessions.maxPerUser:1}") int maxSessionsPerUser,
+                           @Value("${javaTasks.app.sessions.maxTotal:100000}") int maxSessions,
+                           @Value("${javaTasks.app.sessions.tickMs:60000}") long tickMs,
+                           @Value("${javaTasks.app.sessions.wheelSlots:1440}") int wheelSlots) {
+        this.maxSessionsPerUser = maxSessionsPerUser;
+        this.maxSessions = maxSessions;
+        this.tickMs = tickMs;
+        this.wheel = new Queue[wheelSlots];
+        for (int i = 0; i < wheelSlots; i++) {
+            wheel[i] = new ConcurrentLinkedQueue<>();
+        }
+        this.lastSweptTick = System.currentTimeMillis() / tickMs;
+    }
+
+    public int activeSessions(String username) {
+        Map<String, Session> tokens = sessions.get(username);
+        if (tokens == null) {
+            return 0;
+        }
+        long now = System.currentTimeMillis();
+        return (int) tokens.values().stream().filter(session -> session.expiresAt > now).count();
+    }
+
+    public boolean isActive(String username, String tokenId) {
+        Map<String, Session> tokens = sessions.get(username);
+        Session session = tokens != null ? tokens.get(tokenId) : null;
+        return session != null && session.expiresAt > System.currentTimeMillis();
+    }
+
+    /**
+     * Registers a new session, or returns false when the node is at its session limit. When the user
+     * is at their own limit, their oldest sessions are dropped to make room and handed to onEvicted
+     * (token id and expiry), after the update, so the caller can revoke them.
+     */
+    public boolean register(String username, String tokenId, long expiresAtMillis,
+                            BiConsumer<String, Instant> onEvicted) {
+        long now = System.currentTimeMillis();
+        // never schedule into a slot the sweep has already passed
+        Session session = new Session(username, tokenId, expiresAtMillis, slot(Math.max(expiresAtMillis, now) / tickMs));
+        List<Session> evicted = new ArrayList<>();
+        boolean[] registered = {false};
+
+        sessions.compute(username, (key, tokens) -> {
+            if (tokens == null) {
+                tokens = new ConcurrentHashMap<>(4);
+            }
+            // drop this user's expired sessions now instead of waiting for the sweep
+            tokens.values().removeIf(existing -> {
+                if (existing.expiresAt <= now) {
+                    unschedule(existing);
+                    return true;
+                }
+                return false;
+            });
+            while (!tokens.isEmpty() && tokens.size() >= maxSessionsPerUser) {
+                Session oldest = tokens.values().stream().min(Comparator.comparingLong(Session::expiresAt)).orElseThrow();
+                tokens.remove(oldest.tokenId);
+                unschedule(oldest);
+                evicted.add(oldest);
+            }
+            // reserve first and roll back, so concurrent sign-ins of different users can't overshoot the cap;
+            // a session that replaces an evicted one never makes the total grow
+            if (totalSessions.incrementAndGet() > maxSessions && evicted.isEmpty()) {
+                totalSessions.decrementAndGet();
+                return tokens.isEmpty() ? null : tokens;
+            }
+            tokens.put(tokenId, session);
+            // scheduled under the same lock as remove, so a concurrent remove can't leave it on the wheel
+            schedule(session);
+            registered[0] = true;
+            return tokens;
+        });
+
+        evicted.forEach(oldest -> onEvicted.accept(oldest.tokenId, Instant.ofEpochMilli(oldest.expiresAt)));
+        return registered[0];
+    }
+
+    public boolean remove(String username, String tokenId) {
+        boolean[] removed = {false};
+        sessions.computeIfPresent(username, (key, tokens) -> {
+            Session session = tokens.remove(tokenId);
+            if (session != null) {
+                unschedule(session);
+                removed[0] = true;
+            }
+            return tokens.isEmpty() ? null : tokens;
+        });
+        return removed[0];
+    }
+
+    private void schedule(Session session) {
+        wheel[session.slot].add(session);
+    }
+
+    private void unschedule(Session session) {
+        totalSessions.decrementAndGet();
+        wheel[session.slot].remove(session);
+    }
+
+    // sessions on the wheel; matches the total whenever no update is in flight
+    int scheduledSessions() {
+        int scheduled = 0;
+        for (Queue<Session> slot : wheel) {
+            scheduled += slot.size();
+        }
+        return scheduled;
+    }
+
+    private int slot(long tick) {
+        return (int) (tick % wheel.length);
+    }
+
+    @Scheduled(fixedDelayString = "${javaTasks.app.sessions.tickMs:60000}")
+    public synchronized void expireSessions() {
+        long now = System.currentTimeMillis();
+        long currentTick = now / tickMs;
+        // a full turn of the wheel covers every slot, so there is no need to go further back
+        long fromTick = Math.max(lastSweptTick, currentTick - wheel.length + 1);
+        int expired = 0;
+
+        for (long tick = fromTick; tick <= currentTick; tick++) {
+            Iterator<Session> it = wheel[slot(tick)].iterator();
+            while (it.hasNext()) {
+                Session session = it.next();
+                if (session.expiresAt <= now && remove(session.username, session.tokenId)) {
+                    expired++;
+                }
+            }
+        }
+        lastSweptTick = currentTick;
+
+        if (expired > 0) {
+            log.debug("Expired {} sessions", expired);
+        }
+    }
+
+    @Override
+    public String metricsName() {
+        return "sessions";
+    }
+
+    @Override
+    public Map<String, Object> metrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("users", sessions.size());
+        metrics.put("sessions", totalSessions.get());
+        metrics.put("maxSessions", maxSessions);
+        metrics.put("maxSessionsPerUser", maxSessionsPerUser);
+        return metrics;
+    }
+
+    private record Session(String username, String tokenId, long expiresAt, int slot) {
+    }
+}
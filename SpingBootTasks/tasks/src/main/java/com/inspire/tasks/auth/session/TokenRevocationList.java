@@ -0,0 +1,162 @@
+package com.inspire.tasks.auth.session;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.inspire.tasks.common.metrics.MetricsSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Token ids (jti) revoked on signout, checked by the JWT filter on every request.
+ * A Bloom filter answers the common "not revoked" case without touching the set; hits are confirmed
+ * against a size-bounded set whose entries expire with the token itself. The revoked_tokens table is
+ * the source of truth shared between nodes and is polled for revocations made elsewhere. If more tokens
+ * are revoked than the local set can hold, Bloom hits fall back to a primary key lookup.
+ */
+@Component
+@Slf4j
+public class TokenRevocationList implements MetricsSource {
+
+    private final RevokedTokenRepository revokedTokenRepository;
+
+    private final int maxEntries;
+
+    private final double falsePositiveRate;
+
+    private final long syncMs;
+
+    private final Cache<String, Instant> revoked;
+
+    private volatile BloomFilter bloomFilter;
+
+    // guards writes to the filters, so a revocation made during a rebuild reaches the new filter too
+    private final Object filterLock = new Object();
+
+    private BloomFilter rebuilding;
+
+    private volatile boolean overflowed;
+
+    private volatile Instant lastSync = Instant.EPOCH;
+
+    private final LongAdder bloomNegatives = new LongAdder();
+
+    private final LongAdder databaseChecks = new LongAdder();
+
+    public TokenRevocationList(RevokedTokenRepository revokedTokenRepository,
+                               @Value("${javaTasks.app.revocation.maxEntries:100000}") int maxEntries,
+                               @Value("${javaTasks.app.revocation.falsePositiveRate:0.01}") double falsePositiveRate,
+                               @Value("${javaTasks.app.revocation.syncMs:30000}") long syncMs) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.maxEntries = maxEntries;
+        this.falsePositiveRate = falsePositiveRate;
+        this.syncMs = syncMs;
+        this.bloomFilter = new BloomFilter(maxEntries, falsePositiveRate);
+        this.revoked = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfter(Expiry.creating((String tokenId, Instant expiresAt) -> {
+                    Duration remaining = Duration.between(Instant.now(), expiresAt);
+                    return remaining.isNegative() ? Duration.ZERO : remaining;
+                }))
+                .evictionListener((String tokenId, Instant expiresAt, RemovalCause cause) -> {
+                    if (cause == RemovalCause.SIZE) {
+                        overflowed = true;
+                    }
+                })
+                .build();
+    }
+
+    public boolean isRevoked(String tokenId) {
+        if (!bloomFilter.mightContain(tokenId)) {
+            bloomNegatives.increment();
+            return false;
+        }
+        if (revoked.getIfPresent(tokenId) != null) {
+            return true;
+        }
+        if (overflowed) {
+            databaseChecks.increment();
+            return revokedTokenRepository.existsById(tokenId);
+        }
+        return false;
+    }
+
+    public void revoke(String tokenId, Instant expiresAt) {
+        revokedTokenRepository.save(new RevokedToken(tokenId, expiresAt, Instant.now()));
+        add(tokenId, expiresAt);
+    }
+
+    private void add(String tokenId, Instant expiresAt) {
+        synchronized (filterLock) {
+            bloomFilter.put(tokenId);
+            if (rebuilding != null) {
+                rebuilding.put(tokenId);
+            }
+        }
+        revoked.put(tokenId, expiresAt);
+    }
+
+    // picks up revocations made on other nodes; the overlap makes up for clock drift between them
+    @Scheduled(fixedDelayString = "${javaTasks.app.revocation.syncMs:30000}")
+    public void sync() {
+        Instant now = Instant.now();
+        Instant since = lastSync.equals(Instant.EPOCH) ? Instant.EPOCH : lastSync.minusMillis(syncMs);
+        List<RevokedToken> tokens = revokedTokenRepository.findAllByRevokedAtAfterAndExpiresAtAfter(since, now);
+        tokens.forEach(token -> add(token.getTokenId(), token.getExpiresAt()));
+        lastSync = now;
+    }
+
+    // Bloom filters can't forget, so they are rebuilt from the live entries once expired tokens are purged
+    @Scheduled(fixedDelayString = "${javaTasks.app.revocation.purgeMs:600000}",
+            initialDelayString = "${javaTasks.app.revocation.purgeMs:600000}")
+    public void purgeExpired() {
+        Instant now = Instant.now();
+        int deleted = revokedTokenRepository.deleteExpired(now);
+        revoked.cleanUp();
+
+        BloomFilter rebuilt = new BloomFilter(maxEntries, falsePositiveRate);
+        synchronized (filterLock) {
+            rebuilding = rebuilt;
+        }
+        if (overflowed) {
+            List<RevokedToken> live = revokedTokenRepository.findAllByRevokedAtAfterAndExpiresAtAfter(Instant.EPOCH, now);
+            live.forEach(token -> rebuilt.put(token.getTokenId()));
+            overflowed = live.size() > maxEntries;
+        } else {
+            revoked.asMap().keySet().forEach(rebuilt::put);
+        }
+        synchronized (filterLock) {
+            bloomFilter = rebuilt;
+            rebuilding = null;
+        }
+
+        log.debug("Purged {} expired revoked tokens", deleted);
+    }
+
+    @Override
+    public String metricsName() {
+        return "revokedTokens";
+    }
+
+    @Override
+    public Map<String, Object> metrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("size", revoked.estimatedSize());
+        metrics.put("maxEntries", maxEntries);
+        metrics.put("bloomBits", bloomFilter.bitCount());
+        metrics.put("bloomNegatives", bloomNegatives.sum());
+        metrics.put("overflowed", overflowed);
+        metrics.put("databaseChecks", databaseChecks.sum());
+        return metrics;
+    }
+}
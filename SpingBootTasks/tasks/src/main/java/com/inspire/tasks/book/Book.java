@@ -2,15 +2,22 @@ package com.inspire.tasks.book;
 
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.inspire.tasks.book.author.Author;
 import com.inspire.tasks.user.User;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
+import java.util.HashSet;
+import java.util.Set;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Book.CACHE_REGION)
 @Table(name = "books", uniqueConstraints = {
-        @UniqueConstraint(columnNames = "author_name"),
         @UniqueConstraint(columnNames = "title")
 })
 @Getter
@@ -18,6 +25,8 @@ import lombok.Setter;
 @NoArgsConstructor
 public class Book {
 
+    public static final String CACHE_REGION = "books";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     Long id;
@@ -31,11 +40,25 @@ public class Book {
     @Column(name = "description")
     String description;
 
+    // bumped by every update, including the JPQL partial and bulk updates
+    @Version
+    @Column(name = "version")
+    long version;
+
     @JsonIgnore
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id")
     User userId;
 
+    // rows are written by AuthorCatalog alongside each book write, never through this collection
+    @JsonIgnore
+    @ManyToMany(fetch = FetchType.LAZY)
+    @JoinTable(name = "book_authors",
+            joinColumns = @JoinColumn(name = "book_id"),
+            inverseJoinColumns = @JoinColumn(name = "author_id"),
+            indexes = @Index(name = "idx_book_authors_author", columnList = "author_id, book_id"))
+    Set<Author> authors = new HashSet<>();
+
     public Book(String title, String authorName, String description, User userId) {
         this.title = title;
         this.authorName = authorName;
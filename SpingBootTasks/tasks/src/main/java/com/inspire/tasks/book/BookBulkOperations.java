@@ -0,0 +1,222 @@
+package com.inspire.tasks.book;
+
+import com.inspire.tasks.book.author.AuthorCatalog;
+import com.inspire.tasks.book.dto.BookBulkFilter;
+import com.inspire.tasks.book.dto.BookBulkResult;
+import com.inspire.tasks.book.dto.BookBulkUpdateRequest;
+import com.inspire.tasks.book.dto.BookView;
+import com.inspire.tasks.book.search.BookSearchIndex;
+import com.inspire.tasks.book.search.TitleSuggester;
+import com.inspire.tasks.common.exception.BadRequestException;
+import com.inspire.tasks.common.exception.UnauthorizedException;
+import com.inspire.tasks.user.User;
+import com.inspire.tasks.user.UserRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.Query;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk update and delete as single JPQL statements. The filter and, for non-admins,
+ * the ownership check are both part of the WHERE clause, so nothing is loaded or
+ * merged row by row. Matching ids are read (and locked) first only to keep the
+ * in-memory search structures in step.
+ */
+@Component
+@Slf4j
+public class BookBulkOperations {
+
+    BookRepository bookRepository;
+
+    UserRepository userRepository;
+
+    BookService bookService;
+
+    BookSearchIndex bookSearchIndex;
+
+    TitleSuggester titleSuggester;
+
+    AuthorCatalog authorCatalog;
+
+    EntityManager entityManager;
+
+    TransactionTemplate transactionTemplate;
+
+    public BookBulkOperations(BookRepository bookRepository, UserRepository userRepository, BookService bookService,
+                              BookSearchIndex bookSearchIndex, TitleSuggester titleSuggester, AuthorCatalog authorCatalog,
+                              EntityManager entityManager, PlatformTransactionManager transactionManager) {
+        this.bookRepository = bookRepository;
+        this.userRepository = userRepository;
+        this.bookService = bookService;
+        this.bookSearchIndex = bookSearchIndex;
+        this.titleSuggester = titleSuggester;
+        this.authorCatalog = authorCatalog;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    record Predicate(String where, Map<String, Object> params) {
+    }
+
+    public BookBulkResult delete(BookBulkFilter filter) {
+        Predicate predicate = predicate(filter);
+        if (predicate == null) {
+            return new BookBulkResult("delete", 0);
+        }
+
+        List<Long> ids = transactionTemplate.execute(status -> {
+            List<Long> matched = lockMatching(predicate);
+            authorCatalog.unlink(matched);
+            bind(entityManager.createQuery("DELETE FROM Book b" + predicate.where()), predicate).executeUpdate();
+            return matched;
+        });
+
+        ids.forEach(id -> {
+            bookSearchIndex.remove(id);
+            titleSuggester.remove(id);
+        });
+        bookService.booksChanged();
+        log.info("Bulk delete removed {} books", ids.size());
+        return new BookBulkResult("delete", ids.size());
+    }
+
+    public BookBulkResult update(BookBulkUpdateRequest request) {
+        StringBuilder set = new StringBuilder();
+        Map<String, Object> values = new HashMap<>();
+        if (request.getAuthorName() != null && !request.getAuthorName().isBlank()) {
+            set.append(", b.authorName = :newAuthor");
+            values.put("newAuthor", request.getAuthorName().toLowerCase());
+        }
+        if (request.getDescription() != null && !request.getDescription().isBlank()) {
+            set.append(", b.description = :newDescription");
+            values.put("newDescription", request.getDescription().toLowerCase());
+        }
+        Long newOwnerId = null;
+        if (request.getOwner() != null && !request.getOwner().isBlank()) {
+            if (!isAdmin(SecurityContextHolder.getContext().getAuthentication())) {
+                throw new UnauthorizedException("Only admins can reassign books.");
+            }
+            newOwnerId = userId(request.getOwner());
+            if (newOwnerId == null) {
+                throw new BadRequestException("Error: User " + request.getOwner() + " not found.");
+            }
+            set.append(", b.userId = :newOwner");
+        }
+        if (set.isEmpty()) {
+            throw new BadRequestException("Error: Nothing to update, set authorName, description or owner.");
+        }
+
+        Predicate predicate = predicate(request.getFilter());
+        if (predicate == null) {
+            return new BookBulkResult("update", 0);
+        }
+
+        Long ownerId = newOwnerId;
+        List<Long> ids = transactionTemplate.execute(status -> {
+            List<Long> matched = lockMatching(predicate);
+            Query update = bind(entityManager.createQuery("UPDATE Book b SET " + set.substring(2)
+                    + ", b.version = b.version + 1" + predicate.where()), predicate);
+            values.forEach(update::setParameter);
+            if (ownerId != null) {
+                update.setParameter("newOwner", entityManager.getReference(User.class, ownerId));
+            }
+            update.executeUpdate();
+            if (values.containsKey("newAuthor")) {
+                String author = (String) values.get("newAuthor");
+                authorCatalog.relink(matched.stream().collect(Collectors.toMap(id -> id, id -> author)));
+            }
+            return matched;
+        });
+
+        if (!values.isEmpty() && !ids.isEmpty()) {
+            // author and description are indexed for search
+            for (BookView view : bookRepository.findViewsByIdIn(ids)) {
+                Book book = new Book(view.title(), view.authorName(), view.description(), null);
+                book.setId(view.id());
+                bookSearchIndex.index(book);
+            }
+        }
+        if (!ids.isEmpty()) {
+            bookService.booksChanged();
+        }
+        log.info("Bulk update changed {} books", ids.size());
+        return new BookBulkResult("update", ids.size());
+    }
+
+    /**
+     * WHERE clause for the filter, restricted to the caller's own books unless they
+     * are an admin. Returns null when the filter can't match anything.
+     */
+    Predicate predicate(BookBulkFilter filter) {
+        if (filter == null || ((filter.getIds() == null || filter.getIds().isEmpty())
+                && isBlank(filter.getAuthor()) && isBlank(filter.getOwner()))) {
+            throw new BadRequestException("Error: A filter on ids, author or owner is required.");
+        }
+
+        StringBuilder where = new StringBuilder(" WHERE 1 = 1");
+        Map<String, Object> params = new HashMap<>();
+        if (filter.getIds() != null && !filter.getIds().isEmpty()) {
+            where.append(" AND b.id IN :ids");
+            params.put("ids", filter.getIds());
+        }
+        if (!isBlank(filter.getAuthor())) {
+            where.append(" AND b.authorName = :author");
+            params.put("author", filter.getAuthor().toLowerCase());
+        }
+        if (!isBlank(filter.getOwner())) {
+            Long ownerId = userId(filter.getOwner());
+            if (ownerId == null) {
+                return null;
+            }
+            where.append(" AND b.userId.id = :ownerId");
+            params.put("ownerId", ownerId);
+        }
+
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (!isAdmin(authentication)) {
+            Long callerId = userId(authentication.getName());
+            if (callerId == null) {
+                return null;
+            }
+            where.append(" AND b.userId.id = :callerId");
+            params.put("callerId", callerId);
+        }
+        return new Predicate(where.toString(), params);
+    }
+
+    private List<Long> lockMatching(Predicate predicate) {
+        return bind(entityManager.createQuery("SELECT b.id FROM Book b" + predicate.where(), Long.class), predicate)
+                .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                .getResultList();
+    }
+
+    private static <Q extends Query> Q bind(Q query, Predicate predicate) {
+        predicate.params().forEach(query::setParameter);
+        return query;
+    }
+
+    private Long userId(String username) {
+        return userRepository.findIdsByUsernameIn(List.of(username)).stream()
+                .map(pair -> (Long) pair[1])
+                .findFirst()
+                .orElse(null);
+    }
+
+    private static boolean isAdmin(Authentication authentication) {
+        return authentication.getAuthorities().stream().anyMatch(a -> "ROLE_ADMIN".equals(a.getAuthority()));
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+}
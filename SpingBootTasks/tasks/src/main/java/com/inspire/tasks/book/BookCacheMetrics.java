@@ -0,0 +1,65 @@
+package com.inspire.tasks.book;
+
+import com.inspire.tasks.common.metrics.MetricsSource;
+import org.springframework.stereotype.Component;
+
+import javax.cache.management.CacheStatisticsMXBean;
+import javax.management.JMX;
+import javax.management.MBeanServer;
+import javax.management.MalformedObjectNameException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Hit ratios of the Hibernate second-level cache regions used for books. They come from the
+ * statistics the JCache regions already keep (monitoring.statistics in hibernate-cache.conf), so
+ * Hibernate's own session statistics can stay off.
+ */
+@Component
+public class BookCacheMetrics implements MetricsSource {
+
+    MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+
+    @Override
+    public String metricsName() {
+        return "bookCache";
+    }
+
+    @Override
+    public Map<String, Object> metrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("entities", region(statistics(Book.CACHE_REGION)));
+        metrics.put("queries", region(statistics(BookRepository.QUERY_CACHE_REGION)));
+        return metrics;
+    }
+
+    // registered by the caching provider under the region name, with the cache manager's URI as a key
+    private CacheStatisticsMXBean statistics(String region) {
+        try {
+            Set<ObjectName> names = mBeanServer.queryNames(
+                    new ObjectName("javax.cache:type=CacheStatistics,Cache=" + region + ",*"), null);
+            return names.isEmpty() ? null
+                    : JMX.newMXBeanProxy(mBeanServer, names.iterator().next(), CacheStatisticsMXBean.class);
+        } catch (MalformedObjectNameException e) {
+            return null;
+        }
+    }
+
+    static Map<String, Object> region(CacheStatisticsMXBean region) {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        if (region == null) {
+            return metrics;
+        }
+        long hits = region.getCacheHits();
+        long misses = region.getCacheMisses();
+        metrics.put("hits", hits);
+        metrics.put("misses", misses);
+        metrics.put("puts", region.getCachePuts());
+        metrics.put("evictions", region.getCacheEvictions());
+        metrics.put("hitRatio", hits + misses == 0 ? 0.0 : (double) hits / (hits + misses));
+        return metrics;
+    }
+}
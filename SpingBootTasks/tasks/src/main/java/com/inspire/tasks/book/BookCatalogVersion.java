@@ -0,0 +1,120 @@
+package com.inspire.tasks.book;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Monotonic version of the book catalog, bumped after every committed write. Book reads
+ * use it as their ETag, so a client polling unchanged data gets a 304 without a query.
+ * Readers take the ETag before querying and writers bump after committing, so a tag
+ * can only ever be older than the data it's sent with, never newer.
+ *
+ * The counter is a row in catalog_versions, so every instance behind a load balancer
+ * moves on when any of them writes. Reads keep a local copy and re-read the row at
+ * most once per refresh interval, which bounds how long another instance's write can
+ * go unnoticed here; this instance's own writes are seen at once.
+ */
+@Component
+@Slf4j
+public class BookCatalogVersion {
+
+    static final String NAME = "books";
+
+    private record State(long epoch, long version, long readAt) {
+    }
+
+    CatalogVersionRepository catalogVersionRepository;
+
+    private final long refreshMs;
+
+    private volatile State state;
+
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+
+    public BookCatalogVersion(CatalogVersionRepository catalogVersionRepository,
+                              @Value("${javaTasks.app.books.versionRefreshMs:1000}") long refreshMs) {
+        this.catalogVersionRepository = catalogVersionRepository;
+        this.refreshMs = refreshMs;
+    }
+
+    public void bump() {
+        try {
+            if (catalogVersionRepository.increment(NAME) == 0) {
+                create();
+                catalogVersionRepository.increment(NAME);
+            }
+            refresh();
+        } catch (DataAccessException e) {
+            // the write itself is committed, so it isn't failed for this; tags move on with the next bump
+            log.warn("Could not advance the book catalog version: {}", e.getMessage());
+        }
+    }
+
+    public long current() {
+        return state().version();
+    }
+
+    public String etag() {
+        State current = state();
+        return etag(current.epoch(), current.version(), false);
+    }
+
+    // strong validator: between two bumps a book URL serializes to the same bytes, and
+    // the gzipped bytes are a different representation so they get their own tag
+    public String etag(long version, boolean gzip) {
+        return etag(state().epoch(), version, gzip);
+    }
+
+    private static String etag(long epoch, long version, boolean gzip) {
+        return "\"" + Long.toString(epoch, 36) + "-" + version + (gzip ? "-gzip" : "") + "\"";
+    }
+
+    private State state() {
+        State current = state;
+        if (current == null) {
+            refresh();
+            return state;
+        }
+        // one request re-reads the row while the others carry on with the copy they have
+        if (System.currentTimeMillis() - current.readAt() >= refreshMs && refreshing.compareAndSet(false, true)) {
+            try {
+                refresh();
+            } catch (DataAccessException e) {
+                log.warn("Could not read the book catalog version: {}", e.getMessage());
+            } finally {
+                refreshing.set(false);
+            }
+        }
+        return state;
+    }
+
+    private void refresh() {
+        List<Object[]> rows = catalogVersionRepository.findEpochAndVersion(NAME);
+        if (rows.isEmpty()) {
+            create();
+            rows = catalogVersionRepository.findEpochAndVersion(NAME);
+        }
+        State read = new State((Long) rows.get(0)[0], (Long) rows.get(0)[1], System.currentTimeMillis());
+        synchronized (this) {
+            State current = state;
+            // a slower concurrent read must not take the version back
+            if (current == null || current.epoch() != read.epoch() || current.version() <= read.version()) {
+                state = read;
+            }
+        }
+    }
+
+    private void create() {
+        try {
+            catalogVersionRepository.create(NAME, System.currentTimeMillis());
+        } catch (DataIntegrityViolationException e) {
+            // another instance created it first
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.inspire.tasks.book;
+
+import com.inspire.tasks.book.dto.BookView;
+import com.inspire.tasks.common.exception.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position of the last book on a page, handed to clients as an opaque token.
+ * The next page starts strictly after it in the chosen sort order.
+ */
+public record BookCursor(String sort, Long id, String title) {
+
+    public static final String BY_ID = "id";
+    public static final String BY_TITLE = "title";
+
+    static BookCursor after(String sort, BookView last) {
+        return new BookCursor(sort, last.id(), BY_TITLE.equals(sort) ? last.title() : null);
+    }
+
+    public String encode() {
+        String raw = BY_TITLE.equals(sort) ? sort + ":" + id + ":" + title : sort + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static BookCursor decode(String token) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split(":", 3);
+            if (BY_ID.equals(parts[0]) && parts.length == 2) {
+                return new BookCursor(BY_ID, Long.parseLong(parts[1]), null);
+            }
+            if (BY_TITLE.equals(parts[0]) && parts.length == 3) {
+                return new BookCursor(BY_TITLE, Long.parseLong(parts[1]), parts[2]);
+            }
+        } catch (IllegalArgumentException e) {
+            // falls through to the error below
+        }
+        throw new BadRequestException("Error: Invalid page cursor.");
+    }
+}
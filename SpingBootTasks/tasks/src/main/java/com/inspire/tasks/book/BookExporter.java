@@ -0,0 +1,85 @@
+package com.inspire.tasks.book;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Writes the whole catalog to a response body one row at a time. Books come from a
+ * server-side cursor and are detached batch by batch, so memory stays flat no matter
+ * how many books there are.
+ */
+@Component
+@Slf4j
+public class BookExporter {
+
+    public static final String NDJSON = "ndjson";
+    public static final String CSV = "csv";
+
+    BookRepository bookRepository;
+
+    EntityManager entityManager;
+
+    ObjectMapper objectMapper;
+
+    public BookExporter(BookRepository bookRepository, EntityManager entityManager, ObjectMapper objectMapper) {
+        this.bookRepository = bookRepository;
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+    }
+
+    @Transactional(readOnly = true)
+    public long export(String format, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        long count = 0;
+
+        if (CSV.equals(format)) {
+            writer.write("id,title,author_name,description\n");
+        }
+
+        try (Stream<Book> books = bookRepository.streamAllByOrderByIdAsc()) {
+            Iterator<Book> it = books.iterator();
+            while (it.hasNext()) {
+                Book book = it.next();
+                if (CSV.equals(format)) {
+                    writer.write(book.getId() + "," + csv(book.getTitle()) + "," + csv(book.getAuthorName()) + ","
+                            + csv(book.getDescription()) + "\n");
+                } else {
+                    writer.write(objectMapper.writeValueAsString(book));
+                    writer.write('\n');
+                }
+
+                if (++count % BookRepository.EXPORT_FETCH_SIZE == 0) {
+                    // push the batch to the client and let the persistence context forget it
+                    writer.flush();
+                    entityManager.clear();
+                }
+            }
+        }
+        writer.flush();
+
+        log.info("Exported {} books as {}", count, format);
+        return count;
+    }
+
+    static String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.contains(",") || value.contains("\"") || value.contains("\n") || value.contains("\r")) {
+            return "\"" + value.replace("\"", "\"\"") + "\"";
+        }
+        return value;
+    }
+}
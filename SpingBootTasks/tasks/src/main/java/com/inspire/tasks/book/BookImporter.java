@@ -0,0 +1,228 @@
+package com.inspire.tasks.book;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.inspire.tasks.book.author.AuthorCatalog;
+import com.inspire.tasks.book.dto.BookImportReport;
+import com.inspire.tasks.book.dto.BookImportRow;
+import com.inspire.tasks.book.dto.BookRequest;
+import com.inspire.tasks.book.dto.BookView;
+import com.inspire.tasks.book.search.BookSearchIndex;
+import com.inspire.tasks.book.search.TitleSuggester;
+import com.inspire.tasks.user.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk book import. The body (a JSON array or NDJSON) is read one object at a time
+ * with the streaming parser, titles and owners are checked per chunk with IN queries,
+ * and each chunk is written as one JDBC batch in its own transaction. Book.id stays
+ * IDENTITY: Hibernate can't batch those inserts, but a plain JDBC batch can
+ * (rewriteBatchedStatements turns it into multi-row INSERTs on MySQL).
+ */
+@Component
+@Slf4j
+public class BookImporter {
+
+    public static final String CREATED = "CREATED";
+    public static final String DUPLICATE = "DUPLICATE";
+    public static final String INVALID = "INVALID";
+    public static final String UNKNOWN_USER = "UNKNOWN_USER";
+    public static final String FAILED = "FAILED";
+
+    static final String INSERT_SQL = "INSERT INTO books (title, author_name, description, user_id, version) VALUES (?, ?, ?, ?, 0)";
+
+    record PendingBook(int row, String title, String authorName, String description, String username) {
+    }
+
+    BookRepository bookRepository;
+
+    UserRepository userRepository;
+
+    BookService bookService;
+
+    BookSearchIndex bookSearchIndex;
+
+    TitleSuggester titleSuggester;
+
+    AuthorCatalog authorCatalog;
+
+    JdbcTemplate jdbcTemplate;
+
+    TransactionTemplate transactionTemplate;
+
+    EntityManagerFactory entityManagerFactory;
+
+    ObjectMapper objectMapper;
+
+    Validator validator;
+
+    private final int batchSize;
+
+    public BookImporter(BookRepository bookRepository, UserRepository userRepository, BookService bookService,
+                        BookSearchIndex bookSearchIndex, TitleSuggester titleSuggester, AuthorCatalog authorCatalog,
+                        JdbcTemplate jdbcTemplate,
+                        PlatformTransactionManager transactionManager, EntityManagerFactory entityManagerFactory,
+                        ObjectMapper objectMapper, Validator validator,
+                        @Value("${javaTasks.app.books.importBatchSize:1000}") int batchSize) {
+        this.bookRepository = bookRepository;
+        this.userRepository = userRepository;
+        this.bookService = bookService;
+        this.bookSearchIndex = bookSearchIndex;
+        this.titleSuggester = titleSuggester;
+        this.authorCatalog = authorCatalog;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.entityManagerFactory = entityManagerFactory;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.batchSize = batchSize;
+    }
+
+    public BookImportReport importBooks(InputStream body) throws IOException {
+        List<BookImportRow> results = new ArrayList<>();
+        List<PendingBook> chunk = new ArrayList<>(batchSize);
+        Set<String> seenTitles = new HashSet<>();
+        Map<String, Long> userIds = new HashMap<>();
+
+        try (JsonParser parser = objectMapper.getFactory().createParser(body)) {
+            int row = 0;
+            JsonToken token = parser.nextToken();
+            boolean array = token == JsonToken.START_ARRAY;
+            if (array) {
+                token = parser.nextToken();
+            }
+
+            while (token != null && !(array && token == JsonToken.END_ARRAY)) {
+                row++;
+                BookRequest request;
+                try {
+                    request = objectMapper.readValue(parser, BookRequest.class);
+                } catch (JsonProcessingException e) {
+                    // the parser position is unknown after a syntax error, so stop here
+                    results.add(new BookImportRow(row, null, INVALID, null, "Malformed JSON, import stopped"));
+                    break;
+                }
+
+                if (!validator.validate(request).isEmpty()) {
+                    results.add(new BookImportRow(row, request.getTitle(), INVALID, null,
+                            "author, title, description and username are required"));
+                } else {
+                    // same normalisation as BookService.createBook
+                    PendingBook book = new PendingBook(row, request.getTitle().toLowerCase(),
+                            request.getAuthor().toLowerCase(), request.getDescription().toLowerCase(), request.getUsername());
+                    if (!seenTitles.add(book.title())) {
+                        results.add(new BookImportRow(row, book.title(), DUPLICATE, null, "Title repeated in this import"));
+                    } else {
+                        chunk.add(book);
+                        if (chunk.size() == batchSize) {
+                            flush(chunk, userIds, results);
+                        }
+                    }
+                }
+                token = parser.nextToken();
+            }
+        } catch (JsonProcessingException e) {
+            results.add(new BookImportRow(results.size() + chunk.size() + 1, null, INVALID, null, "Malformed JSON, import stopped"));
+        }
+        flush(chunk, userIds, results);
+
+        results.sort(Comparator.comparingInt(BookImportRow::row));
+        int created = (int) results.stream().filter(r -> CREATED.equals(r.status())).count();
+        if (created > 0) {
+            bookService.booksChanged();
+            // the rows bypassed Hibernate, so cached title/author lookups don't know about them
+            entityManagerFactory.unwrap(SessionFactory.class).getCache().evictQueryRegion(BookRepository.QUERY_CACHE_REGION);
+        }
+        log.info("Book import finished: {} created, {} rejected", created, results.size() - created);
+
+        return new BookImportReport(created, results.size() - created, results);
+    }
+
+    private void flush(List<PendingBook> chunk, Map<String, Long> userIds, List<BookImportRow> results) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+
+        Set<String> existing = new HashSet<>(bookRepository.findExistingTitles(
+                chunk.stream().map(PendingBook::title).toList()));
+
+        Set<String> unresolved = chunk.stream().map(PendingBook::username)
+                .filter(username -> !userIds.containsKey(username))
+                .collect(Collectors.toSet());
+        if (!unresolved.isEmpty()) {
+            unresolved.forEach(username -> userIds.put(username, null));
+            userRepository.findIdsByUsernameIn(unresolved)
+                    .forEach(pair -> userIds.put((String) pair[0], (Long) pair[1]));
+        }
+
+        List<PendingBook> insertable = new ArrayList<>(chunk.size());
+        for (PendingBook book : chunk) {
+            if (existing.contains(book.title())) {
+                results.add(new BookImportRow(book.row(), book.title(), DUPLICATE, null, "A book with this title already exists"));
+            } else if (userIds.get(book.username()) == null) {
+                results.add(new BookImportRow(book.row(), book.title(), UNKNOWN_USER, null, "User " + book.username() + " not found"));
+            } else {
+                insertable.add(book);
+            }
+        }
+        chunk.clear();
+        if (insertable.isEmpty()) {
+            return;
+        }
+
+        Map<String, Long> ids;
+        try {
+            ids = transactionTemplate.execute(status -> {
+                jdbcTemplate.batchUpdate(INSERT_SQL, insertable, insertable.size(), (ps, book) -> {
+                    ps.setString(1, book.title());
+                    ps.setString(2, book.authorName());
+                    ps.setString(3, book.description());
+                    ps.setLong(4, userIds.get(book.username()));
+                });
+
+                // titles are unique, so one IN query recovers the generated ids
+                Map<String, Long> created = bookRepository.findViewsByTitleIn(insertable.stream().map(PendingBook::title).toList())
+                        .stream().collect(Collectors.toMap(BookView::title, BookView::id));
+                Map<Long, String> authors = new HashMap<>();
+                insertable.forEach(book -> authors.put(created.get(book.title()), book.authorName()));
+                authorCatalog.link(authors);
+                return created;
+            });
+        } catch (DataAccessException e) {
+            log.warn("Book import batch of {} rows rolled back: {}", insertable.size(), e.getMessage());
+            insertable.forEach(book -> results.add(new BookImportRow(book.row(), book.title(), FAILED, null, "Batch rolled back")));
+            return;
+        }
+        for (PendingBook pending : insertable) {
+            Long id = ids.get(pending.title());
+            results.add(new BookImportRow(pending.row(), pending.title(), CREATED, id, null));
+
+            Book book = new Book(pending.title(), pending.authorName(), pending.description(), null);
+            book.setId(id);
+            bookSearchIndex.index(book);
+            titleSuggester.index(book);
+        }
+    }
+}
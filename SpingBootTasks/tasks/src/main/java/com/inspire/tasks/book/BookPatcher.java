@@ -0,0 +1,152 @@
+package com.inspire.tasks.book;
+
+import com.inspire.tasks.book.author.AuthorCatalog;
+import com.inspire.tasks.book.dto.BookView;
+import com.inspire.tasks.book.search.BookSearchIndex;
+import com.inspire.tasks.book.search.TitleSuggester;
+import com.inspire.tasks.common.exception.BadRequestException;
+import com.inspire.tasks.common.exception.ConflictException;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * PATCH as a single JPQL UPDATE of just the fields in the payload. The book is never
+ * loaded or merged; the ownership check and, when the payload carries the version the
+ * client last read, the version check are part of the WHERE clause, so a foreign book
+ * or a concurrent edit shows up as zero rows.
+ */
+@Component
+@Slf4j
+public class BookPatcher {
+
+    static final String VERSION = "version";
+
+    static final Set<String> PATCHABLE = Set.of("title", "authorName", "description");
+
+    BookRepository bookRepository;
+
+    BookSearchIndex bookSearchIndex;
+
+    TitleSuggester titleSuggester;
+
+    BookSecurity bookSecurity;
+
+    AuthorCatalog authorCatalog;
+
+    BookCatalogVersion catalogVersion;
+
+    EntityManager entityManager;
+
+    TransactionTemplate transactionTemplate;
+
+    public BookPatcher(BookRepository bookRepository, BookSearchIndex bookSearchIndex, TitleSuggester titleSuggester,
+                       BookSecurity bookSecurity, AuthorCatalog authorCatalog, BookCatalogVersion catalogVersion,
+                       EntityManager entityManager, PlatformTransactionManager transactionManager) {
+        this.bookRepository = bookRepository;
+        this.bookSearchIndex = bookSearchIndex;
+        this.titleSuggester = titleSuggester;
+        this.bookSecurity = bookSecurity;
+        this.authorCatalog = authorCatalog;
+        this.catalogVersion = catalogVersion;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public void patch(Long bookId, Map<String, Object> payload) {
+        Long expectedVersion = null;
+        StringBuilder set = new StringBuilder();
+        Map<String, Object> values = new LinkedHashMap<>();
+        for (Map.Entry<String, Object> field : payload.entrySet()) {
+            String name = field.getKey();
+            Object value = field.getValue();
+            if (VERSION.equals(name)) {
+                if (!(value instanceof Number number)) {
+                    throw new BadRequestException("Error: Book version must be a number.");
+                }
+                expectedVersion = number.longValue();
+            } else if (PATCHABLE.contains(name)) {
+                if (!(value instanceof String text) || text.isBlank()) {
+                    throw new BadRequestException("Error: Field '" + name + "' must be a non-empty string.");
+                }
+                set.append(", b.").append(name).append(" = :").append(name);
+                // same normalisation as BookService.createBook, so titles stay unique case-insensitively
+                values.put(name, text.toLowerCase());
+            } else {
+                throw new BadRequestException("Error: Field '" + name + "' can't be patched.");
+            }
+        }
+        if (values.isEmpty()) {
+            throw new BadRequestException("Error: Nothing to update, set title, authorName or description.");
+        }
+
+        Long ownerId = bookSecurity.ownerRestriction();
+        String jpql = "UPDATE Book b SET " + set.substring(2) + ", b.version = b.version + 1 WHERE b.id = :id"
+                + (ownerId == null ? "" : " AND b.userId.id = :ownerId")
+                + (expectedVersion == null ? "" : " AND b.version = :version");
+        Long version = expectedVersion;
+        int updated;
+        try {
+            updated = transactionTemplate.execute(status -> {
+                Query update = entityManager.createQuery(jpql).setParameter("id", bookId);
+                values.forEach(update::setParameter);
+                if (ownerId != null) {
+                    update.setParameter("ownerId", ownerId);
+                }
+                if (version != null) {
+                    update.setParameter(VERSION, version);
+                }
+                int rows = update.executeUpdate();
+                if (rows > 0 && values.containsKey("authorName")) {
+                    authorCatalog.relink(Map.of(bookId, (String) values.get("authorName")));
+                }
+                return rows;
+            });
+        } catch (ConstraintViolationException e) {
+            if (values.containsKey("title")) {
+                throw new BadRequestException("Error: A book with this title already exists.");
+            }
+            // title is the only unique column left, so this is an index AuthorCatalog couldn't drop yet
+            log.warn("Book {} patch rejected by the database: {}", bookId, e.getMessage());
+            throw new BadRequestException("Error: The book conflicts with an existing book.");
+        }
+
+        if (updated == 0) {
+            // only a failed update pays for telling a missing or foreign book from a stale version
+            bookSecurity.checkEditable(bookId, ownerId);
+            throw new ConflictException("Error: Book " + bookId + " was changed by someone else, reload it and retry.");
+        }
+
+        catalogVersion.bump();
+        reindex(bookId, values);
+        log.info("Book {} patched: {}", bookId, values.keySet());
+    }
+
+    // every patchable field is indexed; the rest of the row is only read when the payload didn't carry it
+    private void reindex(Long bookId, Map<String, Object> values) {
+        Book book;
+        if (values.size() == PATCHABLE.size()) {
+            book = new Book((String) values.get("title"), (String) values.get("authorName"),
+                    (String) values.get("description"), null);
+        } else {
+            List<BookView> views = bookRepository.findViewsByIdIn(List.of(bookId));
+            if (views.isEmpty()) {
+                return;
+            }
+            BookView view = views.get(0);
+            book = new Book(view.title(), view.authorName(), view.description(), null);
+        }
+        book.setId(bookId);
+        bookSearchIndex.index(book);
+        titleSuggester.index(book);
+    }
+}
@@ -1,19 +1,88 @@
 package com.inspire.tasks.book;
 
+import com.inspire.tasks.book.dto.BookView;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface BookRepository extends JpaRepository<Book, Long> {
 
-    Optional<Book> findByTitle(String title);
+    int EXPORT_FETCH_SIZE = 500;
+
+    String QUERY_CACHE_REGION = "book-queries";
+
+    String BOOK_VIEW = "SELECT new com.inspire.tasks.book.dto.BookView(b.id, b.title, b.authorName, b.description, b.version) FROM Book b ";
 
     Boolean existsByTitle(String title);
 
-    List<Book> findAllByAuthorName(String author);
+    boolean existsByIdAndUserId_Id(Long id, Long userId);
+
+    // Deletes that report a row count instead of loading the entity first, like deleteById does
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM Book b WHERE b.id = :id")
+    int deleteBook(@Param("id") Long id);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM Book b WHERE b.id = :id AND b.userId.id = :ownerId")
+    int deleteOwnedBook(@Param("id") Long id, @Param("ownerId") Long ownerId);
+
+    // Read paths select straight into BookView, skipping entity instantiation and dirty-checking
+    // Natural-key lookups go through the query cache; Hibernate drops them on any write to books
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = QUERY_CACHE_REGION)
+    })
+    @Query(BOOK_VIEW + "WHERE b.title = :title")
+    Optional<BookView> findViewByTitle(@Param("title") String title);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = QUERY_CACHE_REGION)
+    })
+    @Query(BOOK_VIEW + "JOIN b.authors a WHERE a.name = :author")
+    List<BookView> findViewsByAuthorName(@Param("author") String author);
+
+    @Query(BOOK_VIEW + "WHERE b.title IN :titles")
+    List<BookView> findViewsByTitleIn(@Param("titles") Collection<String> titles);
+
+    @Query("SELECT b.title FROM Book b WHERE b.title IN :titles")
+    List<String> findExistingTitles(@Param("titles") Collection<String> titles);
+
+    @Query(BOOK_VIEW + "WHERE b.id IN :ids")
+    List<BookView> findViewsByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Keyset pages: seek past the last row of the previous page instead of using OFFSET
+    @Query(BOOK_VIEW + "WHERE b.id > :id ORDER BY b.id ASC")
+    List<BookView> findPageAfterId(@Param("id") Long id, Limit limit);
+
+    @Query(BOOK_VIEW + "ORDER BY b.title ASC, b.id ASC")
+    List<BookView> findFirstPageByTitle(Limit limit);
+
+    @Query(BOOK_VIEW + "WHERE b.title > :title OR (b.title = :title AND b.id > :id) ORDER BY b.title ASC, b.id ASC")
+    List<BookView> findPageAfterTitle(@Param("title") String title, @Param("id") Long id, Limit limit);
+
+    // Read-only cursor for exports; rows arrive EXPORT_FETCH_SIZE at a time (needs useCursorFetch on MySQL)
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + EXPORT_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    Stream<Book> streamAllByOrderByIdAsc();
 
     // Join Fetch using JPQL
 //    @Query("SELECT u FROM User u JOIN FETCH u.roles")
@@ -1,18 +1,35 @@
 package com.inspire.tasks.book;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.inspire.tasks.book.author.AuthorCatalog;
+import com.inspire.tasks.book.dto.AuthorView;
+import com.inspire.tasks.book.dto.BookBulkFilter;
+import com.inspire.tasks.book.dto.BookBulkResult;
+import com.inspire.tasks.book.dto.BookBulkUpdateRequest;
+import com.inspire.tasks.book.dto.BookImportReport;
 import com.inspire.tasks.book.dto.BookRequest;
 import com.inspire.tasks.book.dto.BookResponse;
+import com.inspire.tasks.book.dto.BookView;
+import com.inspire.tasks.book.dto.TitleSuggestion;
 import com.inspire.tasks.common.MessageResponse;
+import com.inspire.tasks.common.exception.BadRequestException;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import com.inspire.tasks.user.UserService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import reactor.core.publisher.Mono;
 
+import java.io.IOException;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Supplier;
 
 
 @CrossOrigin(origins = "*", maxAge = 3600)
@@ -21,42 +38,120 @@ import java.util.Map;
 @RequestMapping("/api/lib")
 public class BookRestController {
 
-    BookService bookService;
+    // private, no-cache: clients may keep catalog reads but must revalidate them with If-None-Match
+    static final String REVALIDATE = CacheControl.noCache().cachePrivate().getHeaderValue();
 
-    ObjectMapper objectMapper;
+    BookService bookService;
 
     UserService userService;
 
-    public BookRestController(BookService bookService,     UserService userService,     ObjectMapper objectMapper){
+    BookExporter bookExporter;
+
+    BookImporter bookImporter;
+
+    BookBulkOperations bookBulkOperations;
+
+    BookPatcher bookPatcher;
+
+    AuthorCatalog authorCatalog;
+
+    BookCatalogVersion catalogVersion;
+
+    BookSnapshotCache bookSnapshotCache;
+
+    public BookRestController(BookService bookService,     UserService userService,
+                              BookExporter bookExporter, BookImporter bookImporter, BookBulkOperations bookBulkOperations,
+                              BookPatcher bookPatcher, AuthorCatalog authorCatalog, BookCatalogVersion catalogVersion,
+                              BookSnapshotCache bookSnapshotCache){
         this.bookService = bookService;
         this.userService = userService;
-        this.objectMapper = objectMapper;
+        this.bookExporter = bookExporter;
+        this.bookImporter = bookImporter;
+        this.bookBulkOperations = bookBulkOperations;
+        this.bookPatcher = bookPatcher;
+        this.authorCatalog = authorCatalog;
+        this.catalogVersion = catalogVersion;
+        this.bookSnapshotCache = bookSnapshotCache;
+    }
+
+    // answers a matching If-None-Match with 304 before any query or serialization
+    private <T> T unlessNotModified(ServletWebRequest request, Supplier<T> read) {
+        request.getResponse().setHeader(HttpHeaders.CACHE_CONTROL, REVALIDATE);
+        if (request.checkNotModified(catalogVersion.etag())) {
+            return null;
+        }
+        return read.get();
     }
 
     @PreAuthorize("hasRole('ADMIN') or hasRole('AUTHOR') or hasRole('USER')")
     @GetMapping("open-library/{bookName}")
-    public BookResponse getBookFromOpenLibrary(@PathVariable String bookName){
-        return bookService.findBookByNameOL(bookName);
+    public Mono<BookResponse> getBookFromOpenLibrary(@PathVariable String bookName){
+        // async: the request thread is handed back while Open Library answers
+        return bookService.findBookByNameOLReactive(bookName);
     }
 
     @PreAuthorize("hasRole('ADMIN') or hasRole('AUTHOR') or hasRole('USER')")
+    // writes a BookPage, see BookSnapshotCache
     @GetMapping("/books")
-    public List<Book> findAll() {
-        return bookService.findAll();
+    public void findAll(@RequestParam(required = false) String cursor,
+                        @RequestParam(required = false) Integer size,
+                        @RequestParam(defaultValue = BookCursor.BY_ID) String sort,
+                        @RequestParam(defaultValue = "false") boolean withTotal,
+                        HttpServletRequest request, HttpServletResponse response) throws IOException {
+        bookSnapshotCache.send(request, response, "books:" + cursor + ":" + size + ":" + sort + ":" + withTotal,
+                () -> bookService.findPage(cursor, size, sort, withTotal));
+    }
+
+    @PreAuthorize("hasRole('ADMIN') or hasRole('AUTHOR') or hasRole('USER')")
+    @GetMapping("/books/search")
+    public List<BookView> searchBooks(@RequestParam String q, @RequestParam(required = false) Integer limit) {
+        return bookService.search(q, limit);
     }
 
     @PreAuthorize("hasRole('ADMIN') or hasRole('AUTHOR') or hasRole('USER')")
+    @GetMapping("/books/suggest")
+    public List<TitleSuggestion> suggestTitles(@RequestParam String q, @RequestParam(required = false) Integer limit) {
+        return bookService.suggestTitles(q, limit);
+    }
+
+    @PreAuthorize("hasRole('ADMIN') or hasRole('AUTHOR') or hasRole('USER')")
+    @GetMapping("/books/export")
+    public ResponseEntity<StreamingResponseBody> exportBooks(@RequestParam(defaultValue = BookExporter.NDJSON) String format) {
+        MediaType contentType = switch (format) {
+            case BookExporter.NDJSON -> MediaType.APPLICATION_NDJSON;
+            case BookExporter.CSV -> new MediaType("text", "csv");
+            default -> throw new BadRequestException("Error: Export format must be ndjson or csv.");
+        };
+
+        return ResponseEntity.ok()
+                .contentType(contentType)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=books." + format)
+                .body(out -> bookExporter.export(format, out));
+    }
+
+    @PreAuthorize("hasRole('ADMIN') or hasRole('AUTHOR') or hasRole('USER')")
+    // writes a list of BookView, see BookSnapshotCache
     @GetMapping("/books/author/{authorName}")
-    public List<Book> findBooksByAuthor(@PathVariable String authorName) {
+    public void findBooksByAuthor(@PathVariable String authorName,
+                                  HttpServletRequest request, HttpServletResponse response) throws IOException {
 
-        return bookService.findAllByAuthorName(authorName);
+        bookSnapshotCache.send(request, response, "author:" + authorName.trim().toLowerCase(),
+                () -> bookService.findAllByAuthorName(authorName));
+    }
+
+    @PreAuthorize("hasRole('ADMIN') or hasRole('AUTHOR') or hasRole('USER')")
+    @GetMapping("/authors")
+    public List<AuthorView> findAuthors(@RequestParam(required = false) String after,
+                                        @RequestParam(required = false) Integer size,
+                                        ServletWebRequest request) {
+        return unlessNotModified(request, () -> authorCatalog.findPage(after, size));
     }
 
     @PreAuthorize("hasRole('ADMIN') or hasRole('AUTHOR') or hasRole('USER')")
     @GetMapping("/books/title/{title}")
-    public Book findBooksByTitle(@PathVariable String title) {
+    public BookView findBooksByTitle(@PathVariable String title, ServletWebRequest request) {
 
-        return bookService.findAllByTitle(title);
+        return unlessNotModified(request, () -> bookService.findAllByTitle(title));
     }
 
     @PostMapping("/books")
@@ -64,13 +159,27 @@ public class BookRestController {
         return bookService.createBook(bookRequest);
     }
 
-    @PreAuthorize("hasRole('ADMIN') or @bookSecurity.userCanEdit(#bookId)")
+    @PostMapping("/books/bulk-update")
+    public BookBulkResult bulkUpdateBooks(@RequestBody BookBulkUpdateRequest request){
+        return bookBulkOperations.update(request);
+    }
+
+    @PostMapping("/books/bulk-delete")
+    public BookBulkResult bulkDeleteBooks(@RequestBody BookBulkFilter filter){
+        return bookBulkOperations.delete(filter);
+    }
+
+    @PostMapping(value = "/books/import", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public BookImportReport importBooks(HttpServletRequest request) throws IOException {
+        return bookImporter.importBooks(request.getInputStream());
+    }
+
+    // ownership is checked by the UPDATE itself, see BookPatcher
+    @PreAuthorize("hasRole('ADMIN') or hasRole('AUTHOR') or hasRole('USER')")
     @PatchMapping("/books/{bookId}")
     public ResponseEntity<?> updateBook(@PathVariable Long bookId,
                                          @RequestBody Map<String, Object> patchPayload){
 
-        Book book = bookService.findById(bookId);
-
         // throw exception if request body contains "id" key
         if(patchPayload.containsKey("id")){
             return new ResponseEntity<>
@@ -80,32 +189,15 @@ public class BookRestController {
                     (new MessageResponse(400, "Editing 'user' is not allowed"), HttpStatus.UNAUTHORIZED);
         }
 
-        return bookService.save(apply(patchPayload, book));
+        bookPatcher.patch(bookId, patchPayload);
+        return ResponseEntity.ok(new MessageResponse(200, "Book updated successfully!"));
     }
 
-    Book apply(Map<String, Object> patchPayload, Book book) {
-        ObjectNode bookNode = objectMapper.convertValue(book, ObjectNode.class);
-        ObjectNode patchNode = objectMapper.convertValue(patchPayload, ObjectNode.class);
-        bookNode.setAll(patchNode);
-        Book patched = objectMapper.convertValue(bookNode, Book.class);
-        patched.setUserId(book.getUserId());
-        return patched;
-    }
-
-    @PreAuthorize("hasRole('ADMIN') or @bookSecurity.userCanEdit(#bookId)")
+    // ownership is checked by the DELETE itself, see BookService.deleteById
+    @PreAuthorize("hasRole('ADMIN') or hasRole('AUTHOR') or hasRole('USER')")
     @DeleteMapping("/books/{bookId}")
     public ResponseEntity<?> deleteBook(@PathVariable Long bookId){
 
-        Book book = bookService.findById(bookId);
-
          return bookService.deleteById(bookId);
     }
-
-    // Pagination usage
-//    @GetMapping("/lastUsers")
-//    public Page<User> getLastUsers(){
-//        Pageable pageable = PageRequest.of(0, 10, Sort.by("id").descending());
-//
-//        return userRepository.findAll(pageable);
-//    }
 }
\ No newline at end of file
@@ -1,27 +1,65 @@
 package com.inspire.tasks.book;
 
+import com.inspire.tasks.common.exception.BadRequestException;
 import com.inspire.tasks.common.exception.UnauthorizedException;
+import com.inspire.tasks.user.UserDetailsImpl;
+import com.inspire.tasks.user.UserRepository;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
+
+/**
+ * Ownership rules for editing and deleting books. Instead of loading the book and its
+ * owner up front, mutations put the owner id from here into their WHERE clause and
+ * only ask why when no row matched.
+ */
 @Component("bookSecurity")
 @Slf4j
 public class BookSecurity {
 
-    @Autowired
-    private BookService bookService;
+    private final BookRepository bookRepository;
 
-    public boolean userCanEdit(Long bookId) {
-        Book book = bookService.findById(bookId);
+    private final UserRepository userRepository;
 
-        String currentUser = SecurityContextHolder.getContext().getAuthentication().getName();
+    public BookSecurity(BookRepository bookRepository, UserRepository userRepository) {
+        this.bookRepository = bookRepository;
+        this.userRepository = userRepository;
+    }
 
-        if(!book.getUserId().getUsername().equals(currentUser)){
-            log.warn("Unauthorized edit attempt: User {} tried to modify book {}", currentUser, bookId);
+    /**
+     * Owner id a mutation has to be restricted to, or null when the caller is an admin
+     * and may change any book.
+     */
+    public Long ownerRestriction() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication.getAuthorities().stream().anyMatch(a -> "ROLE_ADMIN".equals(a.getAuthority()))) {
+            return null;
+        }
+        // the JWT filter's principal already carries the id
+        if (authentication.getPrincipal() instanceof UserDetailsImpl user) {
+            return user.getId();
+        }
+        return userRepository.findIdsByUsernameIn(List.of(authentication.getName())).stream()
+                .map(pair -> (Long) pair[1])
+                .findFirst()
+                .orElseThrow(() -> new UnauthorizedException("Only the owner can modify this book."));
+    }
+
+    /**
+     * Called after a restricted mutation matched no row: throws if the book is missing
+     * or belongs to someone else, and returns if it exists and the caller may change it.
+     */
+    public void checkEditable(Long bookId, Long ownerId) {
+        if (!bookRepository.existsById(bookId)) {
+            log.warn("Book with id {} not found", bookId);
+            throw new BadRequestException("Book id : " + bookId + " doesn't exists");
+        }
+        if (ownerId != null && !bookRepository.existsByIdAndUserId_Id(bookId, ownerId)) {
+            log.warn("Unauthorized edit attempt: User {} tried to modify book {}", ownerId, bookId);
             throw new UnauthorizedException("Only the owner can modify this book.");
         }
-        return true;
     }
 }
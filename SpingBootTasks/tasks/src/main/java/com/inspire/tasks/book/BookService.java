@@ -1,21 +1,43 @@
 package com.inspire.tasks.book;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.inspire.tasks.book.client.OpenLibraryService;
+import com.inspire.tasks.book.author.AuthorCatalog;
+import com.inspire.tasks.book.client.OpenLibraryCache;
+import com.inspire.tasks.book.client.ReactiveOpenLibraryService;
+import com.inspire.tasks.book.dto.TitleSuggestion;
+import com.inspire.tasks.book.search.BookSearchIndex;
+import com.inspire.tasks.book.search.TitleSuggester;
 import com.inspire.tasks.common.exception.BadRequestException;
+import com.inspire.tasks.common.exception.GatewayTimeoutException;
+import com.inspire.tasks.book.dto.BookPage;
 import com.inspire.tasks.book.dto.BookRequest;
 import com.inspire.tasks.book.dto.BookResponse;
+import com.inspire.tasks.book.dto.BookView;
 import com.inspire.tasks.common.MessageResponse;
 import com.inspire.tasks.user.User;
 import com.inspire.tasks.user.UserService;
 import jakarta.validation.Valid;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.bind.annotation.RequestBody;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
+import java.io.UncheckedIOException;
+import java.time.Duration;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.StreamSupport;
 
@@ -27,24 +49,67 @@ public class BookService {
 
     UserService userService;
 
-    OpenLibraryService openLibraryService;
+    OpenLibraryCache openLibraryCache;
+
+    ReactiveOpenLibraryService reactiveOpenLibraryService;
 
     ObjectMapper objectMapper;
 
+    BookSearchIndex bookSearchIndex;
+
+    TitleSuggester titleSuggester;
+
+    BookSecurity bookSecurity;
+
+    AuthorCatalog authorCatalog;
+
+    BookCatalogVersion catalogVersion;
+
+    TransactionTemplate transactionTemplate;
+
+    @Value("${javaTasks.app.books.pageSize:20}")
+    int defaultPageSize;
+
+    @Value("${javaTasks.app.books.maxPageSize:100}")
+    int maxPageSize;
+
+    @Value("${javaTasks.app.books.countTtlMs:60000}")
+    long countTtlMs;
 
-    BookService(BookRepository bookRepository, UserService userService, OpenLibraryService openLibraryService, ObjectMapper objectMapper){
+    @Value("${javaTasks.app.search.maxResults:50}")
+    int maxSearchResults;
+
+    @Value("${javaTasks.app.suggest.maxResults:10}")
+    int maxSuggestions;
+
+    @Value("${javaTasks.app.openLibrary.timeoutMs:5000}")
+    long openLibraryTimeoutMs;
+
+    // COUNT(*) is a full scan, so the total is only recomputed after the TTL or a create/delete
+    private volatile long cachedCount = -1;
+
+    private volatile long cachedCountAt;
+
+
+    BookService(BookRepository bookRepository, UserService userService, ReactiveOpenLibraryService reactiveOpenLibraryService,
+                OpenLibraryCache openLibraryCache, ObjectMapper objectMapper,
+                BookSearchIndex bookSearchIndex, TitleSuggester titleSuggester, BookSecurity bookSecurity,
+                AuthorCatalog authorCatalog, BookCatalogVersion catalogVersion, PlatformTransactionManager transactionManager){
         this.bookRepository = bookRepository;
         this.userService = userService;
-        this.openLibraryService = openLibraryService;
+        this.reactiveOpenLibraryService = reactiveOpenLibraryService;
+        this.openLibraryCache = openLibraryCache;
         this.objectMapper = objectMapper;
+        this.bookSearchIndex = bookSearchIndex;
+        this.titleSuggester = titleSuggester;
+        this.bookSecurity = bookSecurity;
+        this.authorCatalog = authorCatalog;
+        this.catalogVersion = catalogVersion;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
     public ResponseEntity<?> createBook(@Valid @RequestBody BookRequest bookRequest){
-        if (bookRepository.existsByTitle(bookRequest.getTitle())) {
-            throw new BadRequestException("Error: A book with this title already exists.");
-        }
-
-        User user = userService.findByUsername(bookRequest.getUsername());
+        User user = userService.referenceByUsername(bookRequest.getUsername());
 
         // Create new book
         Book book = new Book(bookRequest.getTitle().toLowerCase(),
@@ -53,80 +118,231 @@ public class BookService {
                 user
                 );
 
-        bookRepository.save(book);
+        // No existence pre-check: the unique constraints reject duplicates, concurrent ones included,
+        // and only a rejected INSERT pays for finding out which one it was
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                bookRepository.save(book);
+                authorCatalog.link(Map.of(book.getId(), book.getAuthorName()));
+            });
+        } catch (DataIntegrityViolationException e) {
+            throw rejectedBook(book, bookRequest.getUsername(), e);
+        }
+        bookSearchIndex.index(book);
+        titleSuggester.index(book);
+        booksChanged();
 
-        log.info("Book creation request by user {}", user.getUsername());
+        log.info("Book creation request by user {}", bookRequest.getUsername());
 
         return ResponseEntity.ok(new MessageResponse(200, "Book created successfully!"));
     }
 
-    ResponseEntity<?> save(Book book) {
-        bookRepository.save(book);
-        log.info("Book patch request by user {}", book.getUserId());
-        return ResponseEntity.ok(new MessageResponse(200, "Book updated successfully!"));
-    }
-
-    public Book findById(Long bookId) {
-        return bookRepository.findById(bookId).orElseThrow(() -> {
-            log.warn("Book with id {} not found", bookId);
-            return new BadRequestException("Book id : " + bookId + " doesn't exists");
-        });
+    private BadRequestException rejectedBook(Book book, String username, DataIntegrityViolationException e) {
+        if (bookRepository.existsByTitle(book.getTitle())) {
+            return new BadRequestException("Error: A book with this title already exists.");
+        }
+        if (!userService.existsByUsername(username)) {
+            // the cached principal outlived the user
+            log.warn("User with username {} not found", username);
+            return new BadRequestException("Username: " + username + " doesn't exists");
+        }
+        // any other constraint, e.g. a unique author_name index AuthorCatalog couldn't drop yet
+        log.warn("Book {} rejected by the database: {}", book.getTitle(), e.getMostSpecificCause().getMessage());
+        return new BadRequestException("Error: The book conflicts with an existing book.");
     }
 
     ResponseEntity<?> deleteById(Long bookId) {
         log.info("Deleting book with id {}", bookId);
-        bookRepository.deleteById(bookId);
+        Long ownerId = bookSecurity.ownerRestriction();
+        boolean deleted = transactionTemplate.execute(status -> {
+            // the links have to go before the row; a DELETE that matches nothing rolls them back
+            authorCatalog.unlink(List.of(bookId));
+            int rows = ownerId == null ? bookRepository.deleteBook(bookId) : bookRepository.deleteOwnedBook(bookId, ownerId);
+            if (rows == 0) {
+                status.setRollbackOnly();
+            }
+            return rows > 0;
+        });
+        if (!deleted) {
+            bookSecurity.checkEditable(bookId, ownerId);
+            // only reachable if the book changed hands between the DELETE and the check
+            throw new BadRequestException("Book id : " + bookId + " doesn't exists");
+        }
+        bookSearchIndex.remove(bookId);
+        titleSuggester.remove(bookId);
+        booksChanged();
         return ResponseEntity.ok(new MessageResponse(200, "Book has been deleted successfully!"));
     }
 
-    public List<Book> findAll() {
-        return bookRepository.findAll();
+    public BookPage findPage(String cursor, Integer size, String sort, boolean withTotal) {
+        int limit = size == null ? defaultPageSize : Math.min(Math.max(size, 1), maxPageSize);
+
+        BookCursor after = cursor == null ? null : BookCursor.decode(cursor);
+        if (after != null) {
+            sort = after.sort();
+        } else if (!BookCursor.BY_ID.equals(sort) && !BookCursor.BY_TITLE.equals(sort)) {
+            throw new BadRequestException("Error: Books can only be sorted by id or title.");
+        }
+
+        // one extra row tells us whether another page exists
+        Limit fetch = Limit.of(limit + 1);
+        List<BookView> books;
+        if (BookCursor.BY_TITLE.equals(sort)) {
+            books = after == null
+                    ? bookRepository.findFirstPageByTitle(fetch)
+                    : bookRepository.findPageAfterTitle(after.title(), after.id(), fetch);
+        } else {
+            books = bookRepository.findPageAfterId(after == null ? 0L : after.id(), fetch);
+        }
+
+        String nextCursor = null;
+        if (books.size() > limit) {
+            books = books.subList(0, limit);
+            nextCursor = BookCursor.after(sort, books.get(limit - 1)).encode();
+        }
+
+        return new BookPage(books, nextCursor, withTotal ? countBooks() : null);
     }
 
-    public List<Book> findAllByAuthorName(String author) {
-        return bookRepository.findAllByAuthorName(author);
+    // called after every committed write, including those that bypass this service such as bulk imports
+    void booksChanged() {
+        cachedCount = -1;
+        catalogVersion.bump();
     }
 
-    public Book findAllByTitle(String title) {
-        return bookRepository.findByTitle(title).orElseThrow(() -> {
+    long countBooks() {
+        long now = System.currentTimeMillis();
+        long count = cachedCount;
+        if (count < 0 || now - cachedCountAt > countTtlMs) {
+            count = bookRepository.count();
+            cachedCountAt = now;
+            cachedCount = count;
+        }
+        return count;
+    }
+
+    public List<BookView> search(String query, Integer limit) {
+        if (query == null || query.isBlank()) {
+            throw new BadRequestException("Error: Search query must not be empty.");
+        }
+        int max = limit == null ? Math.min(10, maxSearchResults) : Math.min(Math.max(limit, 1), maxSearchResults);
+
+        List<Long> ids = bookSearchIndex.search(query, max);
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+
+        // the IN query ignores the ranking, so put the rows back in index order
+        Map<Long, BookView> books = bookRepository.findViewsByIdIn(ids).stream()
+                .collect(Collectors.toMap(BookView::id, Function.identity()));
+        return ids.stream().map(books::get).filter(Objects::nonNull).toList();
+    }
+
+    public List<TitleSuggestion> suggestTitles(String query, Integer limit) {
+        int max = limit == null ? maxSuggestions : Math.min(Math.max(limit, 1), maxSuggestions);
+        return titleSuggester.suggest(query, max);
+    }
+
+    public List<BookView> findAllByAuthorName(String author) {
+        return bookRepository.findViewsByAuthorName(author.trim().toLowerCase());
+    }
+
+    public BookView findAllByTitle(String title) {
+        return bookRepository.findViewByTitle(title).orElseThrow(() -> {
             log.warn("Book with title {} not found", title);
             return new BadRequestException("Book title : " + title + " doesn't exists");
         });
     }
 
-    public BookResponse findBookByNameOL(String bookName) {
-        try {
-            String searchResponse = openLibraryService.findBookByName(bookName);
-            JsonNode searchNode = objectMapper.readTree(searchResponse);
+    /**
+     * Looks a title up in Open Library without holding a request thread through the two
+     * remote calls. The cache tables are JDBC, so cache reads and writes run on the bounded
+     * elastic pool rather than on the event loop, and the whole lookup shares one deadline.
+     */
+    public Mono<BookResponse> findBookByNameOLReactive(String bookName) {
+        return Mono.fromCallable(() -> openLibraryCache.get(bookName))
+                .subscribeOn(Schedulers.boundedElastic())
+                .map(cached -> cachedOL(bookName, cached))
+                .switchIfEmpty(Mono.defer(() -> resolveOLReactive(bookName)))
+                .timeout(Duration.ofMillis(openLibraryTimeoutMs))
+                .onErrorMap(TimeoutException.class,
+                        e -> new GatewayTimeoutException("Error: Open Library didn't answer in time, try again later."));
+    }
 
-            JsonNode firstDoc = searchNode.get("docs").get(0);
+    private Mono<BookResponse> resolveOLReactive(String bookName) {
+        return reactiveOpenLibraryService.findBookByName(bookName)
+                .publishOn(Schedulers.boundedElastic())
+                .flatMap(search -> {
+                    JsonNode firstDoc = firstDocOL(search);
+                    if (firstDoc == null) {
+                        openLibraryCache.putNotFound(bookName);
+                        return Mono.error(notFoundOL(bookName));
+                    }
 
-            String workId = firstDoc.get("key").asText().replace("/works/", "");
+                    String workId = workIdOL(firstDoc);
+                    // a title that resolves to a work fetched before only costs the search
+                    String storedWork = openLibraryCache.getWork(workId);
+                    Mono<String> work = storedWork != null
+                            ? Mono.just(storedWork)
+                            : reactiveOpenLibraryService.getWorkById(workId).publishOn(Schedulers.boundedElastic());
 
-            JsonNode workNode = objectMapper.readTree(openLibraryService.getWorkById(workId));
+                    return work.map(document -> {
+                        BookResponse book = toBookResponseOL(firstDoc, readTreeOL(document));
+                        openLibraryCache.put(bookName, workId, storedWork != null ? null : document, book);
+                        return book;
+                    });
+                });
+    }
 
-            String authors = "";
-            JsonNode authorNamesNode = firstDoc.get("author_name");
-            if (authorNamesNode != null && authorNamesNode.isArray()) {
-                authors = StreamSupport.stream(authorNamesNode.spliterator(), false)
-                        .map(JsonNode::asText)
-                        .collect(Collectors.joining(", "));
-            }
+    private BookResponse cachedOL(String bookName, OpenLibraryCache.Cached cached) {
+        if (!cached.found()) {
+            throw notFoundOL(bookName);
+        }
+        return cached.book();
+    }
 
-            String description = "";
-            if (workNode.has("description")) {
-                JsonNode descNode = workNode.get("description");
-                if (descNode.has("value")) {
-                    description = descNode.get("value").asText();
-                } else if (descNode.isTextual()) {
-                    description = descNode.asText();
-                }
-            }
-            description = description.replace("\r\n", " ").replace("\n", " ");
+    private BadRequestException notFoundOL(String bookName) {
+        return new BadRequestException("Book title : " + bookName + " not found in Open Library");
+    }
+
+    // null when the search found nothing
+    private JsonNode firstDocOL(String searchResponse) {
+        JsonNode docs = readTreeOL(searchResponse).get("docs");
+        return docs == null || docs.isEmpty() ? null : docs.get(0);
+    }
+
+    private String workIdOL(JsonNode firstDoc) {
+        return firstDoc.get("key").asText().replace("/works/", "");
+    }
 
-            return new BookResponse(workNode.get("title").asText(), authors, description);
-        } catch (Exception e) {
-            throw new RuntimeException(e);
+    private JsonNode readTreeOL(String json) {
+        try {
+            return objectMapper.readTree(json);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private BookResponse toBookResponseOL(JsonNode firstDoc, JsonNode workNode) {
+        String authors = "";
+        JsonNode authorNamesNode = firstDoc.get("author_name");
+        if (authorNamesNode != null && authorNamesNode.isArray()) {
+            authors = StreamSupport.stream(authorNamesNode.spliterator(), false)
+                    .map(JsonNode::asText)
+                    .collect(Collectors.joining(", "));
         }
+
+        String description = "";
+        if (workNode.has("description")) {
+            JsonNode descNode = workNode.get("description");
+            if (descNode.has("value")) {
+                description = descNode.get("value").asText();
+            } else if (descNode.isTextual()) {
+                description = descNode.asText();
+            }
+        }
+        description = description.replace("\r\n", " ").replace("\n", " ");
+
+        return new BookResponse(workNode.get("title").asText(), authors, description);
     }
 }
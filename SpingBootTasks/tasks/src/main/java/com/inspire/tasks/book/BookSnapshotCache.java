@@ -0,0 +1,154 @@
+package com.inspire.tasks.book;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.inspire.tasks.common.metrics.MetricsSource;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Serialized JSON, and a gzipped copy of it, of the hot catalog reads. Keys carry the
+ * {@link BookCatalogVersion} tag the bytes were read at, so a write makes every snapshot
+ * unreachable; they're dropped as soon as a newer version is asked for. The version is
+ * shared, so a write on another instance does the same here once the version is re-read.
+ * A hit skips the queries, Jackson and gzip and is a single write of the cached bytes.
+ */
+@Component
+public class BookSnapshotCache implements MetricsSource {
+
+    static final String GZIP = "gzip";
+
+    record Snapshot(byte[] json, byte[] gzip) {
+
+        int weight() {
+            return json.length + (gzip == null ? 0 : gzip.length);
+        }
+    }
+
+    private final Cache<String, Snapshot> cache;
+
+    private volatile long cachedVersion;
+
+    ObjectMapper objectMapper;
+
+    BookCatalogVersion catalogVersion;
+
+    @Value("${javaTasks.app.books.snapshotCache.minGzipBytes:1024}")
+    int minGzipBytes;
+
+    public BookSnapshotCache(ObjectMapper objectMapper, BookCatalogVersion catalogVersion,
+                             @Value("${javaTasks.app.books.snapshotCache.maxBytes:33554432}") long maxBytes) {
+        this.objectMapper = objectMapper;
+        this.catalogVersion = catalogVersion;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((String key, Snapshot snapshot) -> snapshot.weight())
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Writes the snapshot for the key, reading and serializing it on a miss, or a 304 when
+     * If-None-Match still matches. The version is taken before the read, like the ETag.
+     */
+    public void send(HttpServletRequest request, HttpServletResponse response, String key, Supplier<?> read)
+            throws IOException {
+        long version = catalogVersion.current();
+        boolean gzip = acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+
+        response.setHeader(HttpHeaders.CACHE_CONTROL, BookRestController.REVALIDATE);
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (new ServletWebRequest(request, response).checkNotModified(catalogVersion.etag(version, gzip))) {
+            return;
+        }
+
+        Snapshot snapshot = get(version, key, read);
+        byte[] body = snapshot.json();
+        if (gzip && snapshot.gzip() != null) {
+            body = snapshot.gzip();
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, GZIP);
+        }
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    Snapshot get(long version, String key, Supplier<?> read) {
+        if (version > cachedVersion) {
+            // older snapshots can never be hit again
+            cachedVersion = version;
+            cache.invalidateAll();
+        }
+        // the tag, not just the number, so a recreated version row can't reuse an old key;
+        // concurrent misses on a key wait for one read instead of all querying
+        return cache.get(catalogVersion.etag(version, false) + ":" + key, k -> snapshot(read.get()));
+    }
+
+    private Snapshot snapshot(Object body) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(body);
+            return new Snapshot(json, json.length < minGzipBytes ? null : gzip(json));
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static byte[] gzip(byte[] json) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(json.length / 4);
+        try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+            out.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    // gzip or *, unless given q=0
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            String name = parts[0].trim();
+            if (name.equalsIgnoreCase(GZIP) || name.equals("*")) {
+                return parts.length < 2 || !parts[1].trim().matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public String metricsName() {
+        return "bookSnapshots";
+    }
+
+    @Override
+    public Map<String, Object> metrics() {
+        CacheStats stats = cache.stats();
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("size", cache.estimatedSize());
+        metrics.put("bytes", cache.policy().eviction().map(eviction -> eviction.weightedSize().orElse(0)).orElse(0L));
+        metrics.put("hits", stats.hitCount());
+        metrics.put("misses", stats.missCount());
+        metrics.put("hitRate", stats.hitRate());
+        metrics.put("evictions", stats.evictionCount());
+        return metrics;
+    }
+}
@@ -0,0 +1,28 @@
+package com.inspire.tasks.book;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * A named, shared version counter. The epoch is the row's creation time, so a table
+ * that is dropped and recreated never hands out a tag it used before.
+ */
+@Entity
+@Table(name = "catalog_versions")
+@Getter
+@Setter
+@NoArgsConstructor
+public class CatalogVersion {
+
+    @Id
+    @Column(name = "name", length = 32)
+    String name;
+
+    @Column(name = "epoch", nullable = false)
+    long epoch;
+
+    @Column(name = "version", nullable = false)
+    long version;
+}
@@ -0,0 +1,31 @@
+package com.inspire.tasks.book;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+@Repository
+public interface CatalogVersionRepository extends JpaRepository<CatalogVersion, String> {
+
+    // [epoch, version]; a scalar query, so a row already in the persistence context can't hide a newer version
+    @Query("SELECT c.epoch, c.version FROM CatalogVersion c WHERE c.name = :name")
+    List<Object[]> findEpochAndVersion(@Param("name") String name);
+
+    // its own short transaction, so the shared row is never locked for the length of a caller's write
+    @Modifying
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @Query("UPDATE CatalogVersion c SET c.version = c.version + 1 WHERE c.name = :name")
+    int increment(@Param("name") String name);
+
+    // a plain insert rather than save, which would merge over a row another instance just created
+    @Modifying
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @Query(value = "INSERT INTO catalog_versions (name, epoch, version) VALUES (:name, :epoch, 0)", nativeQuery = true)
+    int create(@Param("name") String name, @Param("epoch") long epoch);
+}
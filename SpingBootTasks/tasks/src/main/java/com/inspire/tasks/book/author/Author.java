@@ -0,0 +1,29 @@
+package com.inspire.tasks.book.author;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Entity
+@Table(name = "authors", uniqueConstraints = @UniqueConstraint(columnNames = "name"))
+@Getter
+@Setter
+@NoArgsConstructor
+public class Author {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    Long id;
+
+    @Column(name = "name", nullable = false)
+    String name;
+
+    // kept up to date by AuthorCatalog on every link and unlink, never recounted
+    @Column(name = "book_count", nullable = false)
+    long bookCount;
+
+    public Author(String name) {
+        this.name = name;
+    }
+}
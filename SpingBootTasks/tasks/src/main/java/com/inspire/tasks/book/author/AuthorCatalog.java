@@ -0,0 +1,245 @@
+package com.inspire.tasks.book.author;
+
+import com.inspire.tasks.book.BookCatalogVersion;
+import com.inspire.tasks.book.BookRepository;
+import com.inspire.tasks.book.dto.AuthorView;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Keeps the authors table and the book_authors links in step with books. Every book
+ * write calls link or unlink inside its own transaction, and those adjust
+ * authors.book_count by the difference, so the catalog never has to count.
+ * Book.authorName stays as the display string; its comma-separated names are the
+ * authors.
+ */
+@Component
+@Slf4j
+public class AuthorCatalog {
+
+    static final int BACKFILL_CHUNK = 1000;
+
+    static final String LINK_SQL = "INSERT INTO book_authors (book_id, author_id) VALUES (?, ?)";
+
+    static final String COUNT_SQL = "UPDATE authors SET book_count = book_count + ? WHERE id = ?";
+
+    static final String INSERT_AUTHOR_SQL = "INSERT INTO authors (name, book_count) VALUES (?, 0)";
+
+    // single-column unique indexes on books.author_name, left behind by the old one-book-per-author mapping
+    static final String AUTHOR_NAME_UNIQUE_SQL = "SELECT index_name FROM information_schema.statistics "
+            + "WHERE table_schema = DATABASE() AND table_name = 'books' AND non_unique = 0 "
+            + "GROUP BY index_name HAVING COUNT(*) = 1 AND MAX(column_name) = 'author_name'";
+
+    AuthorRepository authorRepository;
+
+    JdbcTemplate jdbcTemplate;
+
+    TransactionTemplate transactionTemplate;
+
+    EntityManagerFactory entityManagerFactory;
+
+    BookCatalogVersion catalogVersion;
+
+    @Value("${javaTasks.app.books.pageSize:20}")
+    int defaultPageSize;
+
+    @Value("${javaTasks.app.books.maxPageSize:100}")
+    int maxPageSize;
+
+    public AuthorCatalog(AuthorRepository authorRepository, JdbcTemplate jdbcTemplate,
+                         PlatformTransactionManager transactionManager, EntityManagerFactory entityManagerFactory,
+                         BookCatalogVersion catalogVersion) {
+        this.authorRepository = authorRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.entityManagerFactory = entityManagerFactory;
+        this.catalogVersion = catalogVersion;
+    }
+
+    // authors with at least one book, in name order, starting after the given name
+    public List<AuthorView> findPage(String after, Integer size) {
+        int limit = size == null ? defaultPageSize : Math.min(Math.max(size, 1), maxPageSize);
+        return authorRepository.findPageAfterName(after == null ? "" : after.toLowerCase(), Limit.of(limit));
+    }
+
+    /**
+     * Author names in a book's author string: comma separated, trimmed and lowercased
+     * like everything else createBook stores.
+     */
+    public static List<String> names(String authorName) {
+        if (authorName == null) {
+            return List.of();
+        }
+        return Arrays.stream(authorName.split(","))
+                .map(name -> name.trim().toLowerCase())
+                .filter(name -> !name.isEmpty())
+                .distinct()
+                .toList();
+    }
+
+    /**
+     * Links new books to their authors, creating missing authors, and adds them to the
+     * counts. Must run inside the transaction that wrote the books.
+     */
+    public void link(Map<Long, String> authorNameByBookId) {
+        Map<Long, List<String>> namesByBook = new LinkedHashMap<>();
+        Set<String> allNames = new LinkedHashSet<>();
+        authorNameByBookId.forEach((bookId, authorName) -> {
+            List<String> names = names(authorName);
+            namesByBook.put(bookId, names);
+            allNames.addAll(names);
+        });
+        if (allNames.isEmpty()) {
+            return;
+        }
+
+        Map<String, Long> authorIds = authorIds(allNames);
+        List<Object[]> links = new ArrayList<>();
+        Map<Long, Integer> delta = new TreeMap<>();
+        namesByBook.forEach((bookId, names) -> names.forEach(name -> {
+            Long authorId = authorIds.get(name);
+            links.add(new Object[]{bookId, authorId});
+            delta.merge(authorId, 1, Integer::sum);
+        }));
+        jdbcTemplate.batchUpdate(LINK_SQL, links);
+        adjustCounts(delta);
+    }
+
+    /**
+     * Removes the books' links and takes them off the counts. Must run inside the
+     * transaction that deletes or re-authors the books, before the book rows go.
+     */
+    public void unlink(Collection<Long> bookIds) {
+        if (bookIds.isEmpty()) {
+            return;
+        }
+        String in = placeholders(bookIds.size());
+        Object[] ids = bookIds.toArray();
+
+        List<Long> authorIds = jdbcTemplate.queryForList(
+                "SELECT author_id FROM book_authors WHERE book_id IN (" + in + ")", Long.class, ids);
+        if (authorIds.isEmpty()) {
+            return;
+        }
+        Map<Long, Integer> delta = new TreeMap<>();
+        authorIds.forEach(authorId -> delta.merge(authorId, -1, Integer::sum));
+
+        jdbcTemplate.update("DELETE FROM book_authors WHERE book_id IN (" + in + ")", ids);
+        adjustCounts(delta);
+    }
+
+    public void relink(Map<Long, String> authorNameByBookId) {
+        unlink(authorNameByBookId.keySet());
+        link(authorNameByBookId);
+    }
+
+    /**
+     * Links books written before the authors table existed (or by anything that
+     * skipped link), a chunk per transaction.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        dropAuthorNameUnique();
+        long lastId = 0;
+        long linked = 0;
+        while (true) {
+            Map<Long, String> chunk = new LinkedHashMap<>();
+            jdbcTemplate.query("SELECT b.id, b.author_name FROM books b WHERE b.id > ? "
+                            + "AND NOT EXISTS (SELECT 1 FROM book_authors ba WHERE ba.book_id = b.id) "
+                            + "ORDER BY b.id LIMIT " + BACKFILL_CHUNK,
+                    rs -> {
+                        chunk.put(rs.getLong(1), rs.getString(2));
+                    }, lastId);
+            if (chunk.isEmpty()) {
+                break;
+            }
+            transactionTemplate.executeWithoutResult(status -> link(chunk));
+            lastId = Collections.max(chunk.keySet());
+            linked += chunk.size();
+        }
+        if (linked > 0) {
+            // plain JDBC, so cached author lookups don't know about the new links
+            entityManagerFactory.unwrap(SessionFactory.class).getCache().evictQueryRegion(BookRepository.QUERY_CACHE_REGION);
+            catalogVersion.bump();
+            log.info("Linked {} books to their authors", linked);
+        }
+    }
+
+    /**
+     * Books used to allow one book per author through a unique index on author_name.
+     * ddl-auto=update never drops an index, so databases created before the authors
+     * table still have it and reject every second book by the same author.
+     */
+    void dropAuthorNameUnique() {
+        try {
+            for (String index : jdbcTemplate.queryForList(AUTHOR_NAME_UNIQUE_SQL, String.class)) {
+                jdbcTemplate.execute("ALTER TABLE books DROP INDEX `" + index.replace("`", "``") + "`");
+                log.info("Dropped unique index {} on books.author_name", index);
+            }
+        } catch (DataAccessException e) {
+            log.warn("Could not drop the unique index on books.author_name: {}", e.getMessage());
+        }
+    }
+
+    private Map<String, Long> authorIds(Set<String> names) {
+        Map<String, Long> ids = select(names, false);
+        if (ids.size() == names.size()) {
+            return ids;
+        }
+        List<String> missing = names.stream().filter(name -> !ids.containsKey(name)).toList();
+        for (String name : missing) {
+            try {
+                jdbcTemplate.update(INSERT_AUTHOR_SQL, name);
+            } catch (DuplicateKeyException e) {
+                // created by a concurrent writer since the select
+            }
+        }
+        // a locking read sees rows committed after this transaction's snapshot
+        ids.putAll(select(missing, true));
+        return ids;
+    }
+
+    private Map<String, Long> select(Collection<String> names, boolean locking) {
+        Map<String, Long> ids = new HashMap<>();
+        jdbcTemplate.query("SELECT name, id FROM authors WHERE name IN (" + placeholders(names.size()) + ")"
+                        + (locking ? " FOR UPDATE" : ""),
+                rs -> {
+                    ids.put(rs.getString(1), rs.getLong(2));
+                }, names.toArray());
+        return ids;
+    }
+
+    // ascending author id order, so concurrent writers lock count rows in the same order
+    private void adjustCounts(Map<Long, Integer> delta) {
+        List<Object[]> updates = new ArrayList<>(delta.size());
+        delta.forEach((authorId, change) -> updates.add(new Object[]{change, authorId}));
+        jdbcTemplate.batchUpdate(COUNT_SQL, updates);
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+}
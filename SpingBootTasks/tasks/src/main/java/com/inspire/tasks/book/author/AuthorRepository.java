@@ -0,0 +1,19 @@
+package com.inspire.tasks.book.author;
+
+import com.inspire.tasks.book.dto.AuthorView;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface AuthorRepository extends JpaRepository<Author, Long> {
+
+    // Keyset page over the unique name index; counts are stored, so there is no GROUP BY
+    @Query("SELECT new com.inspire.tasks.book.dto.AuthorView(a.name, a.bookCount) FROM Author a "
+            + "WHERE a.name > :after AND a.bookCount > 0 ORDER BY a.name ASC")
+    List<AuthorView> findPageAfterName(@Param("after") String after, Limit limit);
+}
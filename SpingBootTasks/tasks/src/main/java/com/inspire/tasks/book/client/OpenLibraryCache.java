@@ -0,0 +1,192 @@
+package com.inspire.tasks.book.client;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.inspire.tasks.book.dto.BookResponse;
+import com.inspire.tasks.common.metrics.MetricsSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Open Library lookups in two tiers: a size-bounded, TTL-evicting map of resolved titles
+ * in front of the open_library_lookups and open_library_works tables, which outlive
+ * restarts. Titles the search didn't find are cached as well, for a shorter time.
+ * Failing to write the tables only costs a later remote call, so it is logged, not thrown.
+ */
+@Component
+@Slf4j
+public class OpenLibraryCache implements MetricsSource {
+
+    static final int MAX_KEY_LENGTH = 255;
+
+    /**
+     * A cached lookup; no book means the title is known not to be on Open Library.
+     */
+    public record Cached(BookResponse book) {
+
+        static final Cached NOT_FOUND = new Cached(null);
+
+        public boolean found() {
+            return book != null;
+        }
+    }
+
+    private final Cache<String, Cached> memory;
+
+    OpenLibraryLookupRepository lookupRepository;
+
+    OpenLibraryWorkRepository workRepository;
+
+    private final Duration storeTtl;
+
+    private final Duration negativeTtl;
+
+    private final LongAdder storeHits = new LongAdder();
+
+    private final LongAdder storeMisses = new LongAdder();
+
+    private final LongAdder workHits = new LongAdder();
+
+    private final LongAdder workMisses = new LongAdder();
+
+    private final LongAdder notFoundHits = new LongAdder();
+
+    public OpenLibraryCache(OpenLibraryLookupRepository lookupRepository, OpenLibraryWorkRepository workRepository,
+                            @Value("${javaTasks.app.openLibrary.memory.maxSize:10000}") long maxSize,
+                            @Value("${javaTasks.app.openLibrary.memory.ttlSeconds:3600}") long memoryTtlSeconds,
+                            @Value("${javaTasks.app.openLibrary.store.ttlHours:168}") long storeTtlHours,
+                            @Value("${javaTasks.app.openLibrary.negativeTtlSeconds:600}") long negativeTtlSeconds) {
+        this.lookupRepository = lookupRepository;
+        this.workRepository = workRepository;
+        this.storeTtl = Duration.ofHours(storeTtlHours);
+        this.negativeTtl = Duration.ofSeconds(negativeTtlSeconds);
+        Duration memoryTtl = Duration.ofSeconds(memoryTtlSeconds);
+        this.memory = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(Expiry.creating((String key, Cached cached) ->
+                        cached.found() || negativeTtl.compareTo(memoryTtl) > 0 ? memoryTtl : negativeTtl))
+                .recordStats()
+                .build();
+    }
+
+    // titles that differ only in case or spacing are the same lookup
+    public static String key(String title) {
+        return title.trim().replaceAll("\\s+", " ").toLowerCase();
+    }
+
+    /**
+     * The cached lookup for a title, from memory or else from the table, or null if it
+     * has to be asked for remotely.
+     */
+    public Cached get(String title) {
+        String key = key(title);
+        Cached cached = memory.getIfPresent(key);
+        if (cached == null) {
+            cached = stored(key);
+            if (cached == null) {
+                return null;
+            }
+            memory.put(key, cached);
+        }
+        if (!cached.found()) {
+            notFoundHits.increment();
+        }
+        return cached;
+    }
+
+    private Cached stored(String key) {
+        if (key.length() > MAX_KEY_LENGTH) {
+            return null;
+        }
+        OpenLibraryLookup row = lookupRepository.findById(key).orElse(null);
+        if (row == null || expired(row.getFetchedAt(), row.getWorkId() == null ? negativeTtl : storeTtl)) {
+            storeMisses.increment();
+            return null;
+        }
+        storeHits.increment();
+        return row.getWorkId() == null
+                ? Cached.NOT_FOUND
+                : new Cached(new BookResponse(row.getTitle(), row.getAuthorName(), row.getDescription()));
+    }
+
+    // a stored work document, so a title that resolves to a known work costs only the search
+    public String getWork(String workId) {
+        OpenLibraryWork work = workRepository.findById(workId).orElse(null);
+        if (work == null || expired(work.getFetchedAt(), storeTtl)) {
+            workMisses.increment();
+            return null;
+        }
+        workHits.increment();
+        return work.getDocument();
+    }
+
+    // workDocument is null when it came from getWork and is already stored
+    public void put(String title, String workId, String workDocument, BookResponse book) {
+        String key = key(title);
+        memory.put(key, new Cached(book));
+        Instant now = Instant.now();
+        try {
+            if (workDocument != null) {
+                workRepository.save(new OpenLibraryWork(workId, workDocument, now));
+            }
+            if (key.length() <= MAX_KEY_LENGTH) {
+                lookupRepository.save(new OpenLibraryLookup(key, workId, book.title(), book.authorName(), book.description(), now));
+            }
+        } catch (DataAccessException e) {
+            log.warn("Could not store Open Library lookup for {}: {}", key, e.getMessage());
+        }
+    }
+
+    public void putNotFound(String title) {
+        String key = key(title);
+        memory.put(key, Cached.NOT_FOUND);
+        if (key.length() > MAX_KEY_LENGTH) {
+            return;
+        }
+        try {
+            lookupRepository.save(new OpenLibraryLookup(key, null, null, null, null, Instant.now()));
+        } catch (DataAccessException e) {
+            log.warn("Could not store Open Library miss for {}: {}", key, e.getMessage());
+        }
+    }
+
+    private static boolean expired(Instant fetchedAt, Duration ttl) {
+        return fetchedAt.plus(ttl).isBefore(Instant.now());
+    }
+
+    @Override
+    public String metricsName() {
+        return "openLibraryCache";
+    }
+
+    @Override
+    public Map<String, Object> metrics() {
+        CacheStats stats = memory.stats();
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("memorySize", memory.estimatedSize());
+        metrics.put("memoryHits", stats.hitCount());
+        metrics.put("memoryMisses", stats.missCount());
+        metrics.put("memoryHitRate", stats.hitRate());
+        metrics.put("storeHits", storeHits.sum());
+        metrics.put("storeMisses", storeMisses.sum());
+        metrics.put("storeHitRate", rate(storeHits.sum(), storeMisses.sum()));
+        metrics.put("workHits", workHits.sum());
+        metrics.put("workMisses", workMisses.sum());
+        metrics.put("notFoundHits", notFoundHits.sum());
+        return metrics;
+    }
+
+    private static double rate(long hits, long misses) {
+        return hits + misses == 0 ? 0.0 : (double) hits / (hits + misses);
+    }
+}
@@ -1,23 +1,43 @@
 package com.inspire.tasks.book.client;
 
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.reactive.function.client.support.WebClientAdapter;
 import org.springframework.web.service.invoker.HttpServiceProxyFactory;
+import reactor.netty.http.client.HttpClient;
+
+import java.time.Duration;
 
 @Configuration
 public class OpenLibraryConfig {
 
+    @Value("${javaTasks.app.openLibrary.connectTimeoutMs:2000}")
+    int connectTimeoutMs;
+
+    @Value("${javaTasks.app.openLibrary.timeoutMs:5000}")
+    long timeoutMs;
+
+    // the connection pool is shared and a call is given up on after the timeout
     @Bean
-    OpenLibraryService catFactService(){
+    HttpServiceProxyFactory openLibraryProxyFactory() {
+        HttpClient httpClient = HttpClient.create()
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, connectTimeoutMs)
+                .responseTimeout(Duration.ofMillis(timeoutMs));
+
         WebClient webClient = WebClient.builder()
                 .baseUrl("https://openlibrary.org")
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
                 .build();
 
+        return HttpServiceProxyFactory.builderFor(WebClientAdapter.create(webClient)).build();
+    }
 
-        HttpServiceProxyFactory factory = HttpServiceProxyFactory.builderFor(WebClientAdapter.create(webClient)).build();
-
-        return factory.createClient(OpenLibraryService.class);
+    @Bean
+    ReactiveOpenLibraryService reactiveOpenLibraryService(HttpServiceProxyFactory openLibraryProxyFactory) {
+        return openLibraryProxyFactory.createClient(ReactiveOpenLibraryService.class);
     }
 }
@@ -0,0 +1,51 @@
+package com.inspire.tasks.book.client;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+/**
+ * A title looked up on Open Library and what it resolved to. No work id means the
+ * search found nothing, which is remembered too.
+ */
+@Entity
+@Table(name = "open_library_lookups")
+@Getter
+@Setter
+@NoArgsConstructor
+public class OpenLibraryLookup {
+
+    // the normalized title, see OpenLibraryCache.key
+    @Id
+    @Column(name = "query_key")
+    String queryKey;
+
+    @Column(name = "work_id", length = 32)
+    String workId;
+
+    @Column(name = "title", length = 1024)
+    String title;
+
+    @Column(name = "author_name", length = 1024)
+    String authorName;
+
+    @Lob
+    @Column(name = "description")
+    String description;
+
+    @Column(name = "fetched_at", nullable = false)
+    Instant fetchedAt;
+
+    public OpenLibraryLookup(String queryKey, String workId, String title, String authorName, String description,
+                             Instant fetchedAt) {
+        this.queryKey = queryKey;
+        this.workId = workId;
+        this.title = title;
+        this.authorName = authorName;
+        this.description = description;
+        this.fetchedAt = fetchedAt;
+    }
+}
@@ -0,0 +1,37 @@
+package com.inspire.tasks.book.client;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+/**
+ * A /works/{id}.json document as Open Library returned it, shared by every title that
+ * resolves to the work.
+ */
+@Entity
+@Table(name = "open_library_works")
+@Getter
+@Setter
+@NoArgsConstructor
+public class OpenLibraryWork {
+
+    @Id
+    @Column(name = "work_id", length = 32)
+    String workId;
+
+    @Lob
+    @Column(name = "document", nullable = false)
+    String document;
+
+    @Column(name = "fetched_at", nullable = false)
+    Instant fetchedAt;
+
+    public OpenLibraryWork(String workId, String document, Instant fetchedAt) {
+        this.workId = workId;
+        this.document = document;
+        this.fetchedAt = fetchedAt;
+    }
+}
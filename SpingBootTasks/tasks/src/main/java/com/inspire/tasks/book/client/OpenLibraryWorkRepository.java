@@ -0,0 +1,8 @@
+package com.inspire.tasks.book.client;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface OpenLibraryWorkRepository extends JpaRepository<OpenLibraryWork, String> {
+}
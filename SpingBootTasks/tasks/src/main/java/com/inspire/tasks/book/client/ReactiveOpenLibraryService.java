@@ -0,0 +1,19 @@
+package com.inspire.tasks.book.client;
+
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.service.annotation.GetExchange;
+import reactor.core.publisher.Mono;
+
+/**
+ * Open Library client that doesn't block: the proxy hands back WebClient's Mono
+ * instead of waiting for the body on the calling thread.
+ */
+public interface ReactiveOpenLibraryService {
+
+    @GetExchange("/search.json")
+    Mono<String> findBookByName(@RequestParam("q") String bookName);
+
+    @GetExchange("/works/{id}.json")
+    Mono<String> getWorkById(@PathVariable("id") String workId);
+}
@@ -0,0 +1,6 @@
+package com.inspire.tasks.book.dto;
+
+public record AuthorView(
+        String name,
+        long bookCount
+) {}
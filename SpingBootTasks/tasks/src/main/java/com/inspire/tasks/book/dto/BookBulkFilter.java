@@ -0,0 +1,18 @@
+package com.inspire.tasks.book.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+@Setter
+@Getter
+public class BookBulkFilter {
+
+    List<Long> ids;
+
+    String author;
+
+    String owner;
+
+}
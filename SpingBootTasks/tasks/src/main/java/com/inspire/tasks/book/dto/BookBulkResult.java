@@ -0,0 +1,6 @@
+package com.inspire.tasks.book.dto;
+
+public record BookBulkResult(
+        String operation,
+        int affected
+) {}
@@ -0,0 +1,19 @@
+package com.inspire.tasks.book.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Setter
+@Getter
+public class BookBulkUpdateRequest {
+
+    BookBulkFilter filter;
+
+    String authorName;
+
+    String description;
+
+    // username of the new owner, admins only
+    String owner;
+
+}
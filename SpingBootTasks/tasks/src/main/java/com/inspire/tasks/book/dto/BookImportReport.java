@@ -0,0 +1,9 @@
+package com.inspire.tasks.book.dto;
+
+import java.util.List;
+
+public record BookImportReport(
+        int created,
+        int rejected,
+        List<BookImportRow> rows
+) {}
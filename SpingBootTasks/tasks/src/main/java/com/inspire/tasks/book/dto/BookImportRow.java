@@ -0,0 +1,12 @@
+package com.inspire.tasks.book.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record BookImportRow(
+        int row,
+        String title,
+        String status,
+        Long id,
+        String error
+) {}
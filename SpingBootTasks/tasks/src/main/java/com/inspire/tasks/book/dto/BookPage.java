@@ -0,0 +1,11 @@
+package com.inspire.tasks.book.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import java.util.List;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record BookPage(
+        List<BookView> items,
+        String nextCursor,
+        Long total
+) {}
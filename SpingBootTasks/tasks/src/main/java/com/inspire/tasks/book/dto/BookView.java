@@ -0,0 +1,13 @@
+package com.inspire.tasks.book.dto;
+
+/**
+ * Read-only row for the book listing endpoints, selected straight from the query
+ * so Hibernate never builds or tracks a Book entity for it.
+ */
+public record BookView(
+        Long id,
+        String title,
+        String authorName,
+        String description,
+        long version
+) {}
@@ -0,0 +1,7 @@
+package com.inspire.tasks.book.dto;
+
+public record TitleSuggestion(
+        Long id,
+        String title,
+        double score
+) {}
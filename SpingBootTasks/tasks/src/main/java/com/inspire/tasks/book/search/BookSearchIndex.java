@@ -0,0 +1,270 @@
+package com.inspire.tasks.book.search;
+
+import com.inspire.tasks.book.Book;
+import com.inspire.tasks.book.BookRepository;
+import com.inspire.tasks.common.metrics.MetricsSource;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Inverted index over book title, author and description ranked with BM25.
+ * Each book is one document with an internal int id; postings are parallel int
+ * arrays of document ids and term frequencies. Ids of removed books are reused,
+ * so memory tracks the live catalog rather than its edit history.
+ */
+@Component
+@Slf4j
+public class BookSearchIndex implements MetricsSource {
+
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+
+    static final class Postings {
+        int[] docs = new int[4];
+        int[] freqs = new int[4];
+        int size;
+
+        void add(int doc, int freq) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                freqs = Arrays.copyOf(freqs, size * 2);
+            }
+            docs[size] = doc;
+            freqs[size] = freq;
+            size++;
+        }
+
+        // postings are unordered, so the last entry can fill the gap
+        void remove(int doc) {
+            for (int i = 0; i < size; i++) {
+                if (docs[i] == doc) {
+                    size--;
+                    docs[i] = docs[size];
+                    freqs[i] = freqs[size];
+                    return;
+                }
+            }
+        }
+    }
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<String, Postings> postings = new HashMap<>();
+
+    private final Map<Long, Integer> docsByBookId = new HashMap<>();
+
+    private long[] bookIds = new long[1024];
+
+    private int[] docLengths = new int[1024];
+
+    // distinct terms per document, needed to take it back out of the postings
+    private String[][] docTerms = new String[1024][];
+
+    private int[] freeDocs = new int[64];
+
+    private int freeCount;
+
+    private int nextDoc;
+
+    private int liveDocs;
+
+    private long totalLength;
+
+    BookRepository bookRepository;
+
+    EntityManager entityManager;
+
+    public BookSearchIndex(BookRepository bookRepository, EntityManager entityManager) {
+        this.bookRepository = bookRepository;
+        this.entityManager = entityManager;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        clear();
+        long count = 0;
+        try (Stream<Book> books = bookRepository.streamAllByOrderByIdAsc()) {
+            Iterator<Book> it = books.iterator();
+            while (it.hasNext()) {
+                index(it.next());
+                if (++count % BookRepository.EXPORT_FETCH_SIZE == 0) {
+                    entityManager.clear();
+                }
+            }
+        }
+        log.info("Search index rebuilt with {} books", count);
+    }
+
+    public void index(Book book) {
+        Map<String, Integer> frequencies = new HashMap<>();
+        int length = 0;
+        for (String text : new String[]{book.getTitle(), book.getAuthorName(), book.getDescription()}) {
+            for (String token : Tokenizer.tokenize(text)) {
+                frequencies.merge(token, 1, Integer::sum);
+                length++;
+            }
+        }
+
+        lock.writeLock().lock();
+        try {
+            removeLocked(book.getId());
+
+            int doc = freeCount > 0 ? freeDocs[--freeCount] : nextDoc++;
+            if (doc == bookIds.length) {
+                bookIds = Arrays.copyOf(bookIds, doc * 2);
+                docLengths = Arrays.copyOf(docLengths, doc * 2);
+                docTerms = Arrays.copyOf(docTerms, doc * 2);
+            }
+            bookIds[doc] = book.getId();
+            docLengths[doc] = length;
+            docTerms[doc] = frequencies.keySet().toArray(String[]::new);
+            frequencies.forEach((term, freq) -> postings.computeIfAbsent(term, t -> new Postings()).add(doc, freq));
+
+            docsByBookId.put(book.getId(), doc);
+            liveDocs++;
+            totalLength += length;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long bookId) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(bookId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void removeLocked(Long bookId) {
+        Integer doc = docsByBookId.remove(bookId);
+        if (doc == null) {
+            return;
+        }
+        for (String term : docTerms[doc]) {
+            Postings list = postings.get(term);
+            list.remove(doc);
+            if (list.size == 0) {
+                postings.remove(term);
+            }
+        }
+        docTerms[doc] = null;
+        totalLength -= docLengths[doc];
+        liveDocs--;
+
+        if (freeCount == freeDocs.length) {
+            freeDocs = Arrays.copyOf(freeDocs, freeCount * 2);
+        }
+        freeDocs[freeCount++] = doc;
+    }
+
+    /**
+     * Ids of the best matching books, highest BM25 score first.
+     */
+    public List<Long> search(String query, int limit) {
+        List<String> terms = new ArrayList<>(new LinkedHashSet<>(Tokenizer.tokenize(query)));
+        if (terms.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            if (liveDocs == 0) {
+                return List.of();
+            }
+            float avgLength = (float) totalLength / liveDocs;
+            float[] scores = new float[nextDoc];
+            int[] touched = new int[64];
+            int touchedCount = 0;
+
+            for (String term : terms) {
+                Postings list = postings.get(term);
+                if (list == null) {
+                    continue;
+                }
+                float idf = (float) Math.log(1 + (liveDocs - list.size + 0.5) / (list.size + 0.5));
+                for (int i = 0; i < list.size; i++) {
+                    int doc = list.docs[i];
+                    int tf = list.freqs[i];
+                    float norm = K1 * (1 - B + B * docLengths[doc] / avgLength);
+                    if (scores[doc] == 0) {
+                        if (touchedCount == touched.length) {
+                            touched = Arrays.copyOf(touched, touchedCount * 2);
+                        }
+                        touched[touchedCount++] = doc;
+                    }
+                    scores[doc] += idf * tf * (K1 + 1) / (tf + norm);
+                }
+            }
+
+            // min-heap of the current top hits
+            PriorityQueue<Integer> top = new PriorityQueue<>(limit + 1, (a, b) -> Float.compare(scores[a], scores[b]));
+            for (int i = 0; i < touchedCount; i++) {
+                top.add(touched[i]);
+                if (top.size() > limit) {
+                    top.poll();
+                }
+            }
+
+            Long[] result = new Long[top.size()];
+            for (int i = result.length - 1; i >= 0; i--) {
+                result[i] = bookIds[top.poll()];
+            }
+            return Arrays.asList(result);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    void clear() {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            docsByBookId.clear();
+            Arrays.fill(docTerms, null);
+            freeCount = 0;
+            nextDoc = 0;
+            liveDocs = 0;
+            totalLength = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public String metricsName() {
+        return "bookSearchIndex";
+    }
+
+    @Override
+    public Map<String, Object> metrics() {
+        lock.readLock().lock();
+        try {
+            Map<String, Object> metrics = new LinkedHashMap<>();
+            metrics.put("books", liveDocs);
+            metrics.put("terms", postings.size());
+            metrics.put("freeSlots", freeCount);
+            return metrics;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+}
@@ -0,0 +1,350 @@
+package com.inspire.tasks.book.search;
+
+import com.inspire.tasks.book.Book;
+import com.inspire.tasks.book.BookRepository;
+import com.inspire.tasks.book.dto.TitleSuggestion;
+import com.inspire.tasks.common.metrics.MetricsSource;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Title type-ahead. A radix trie answers prefix queries in the length of the prefix,
+ * and a trigram index fills the rest of the list with near misses ranked by
+ * Jaccard similarity, so a typo still finds the book.
+ */
+@Component
+@Slf4j
+public class TitleSuggester implements MetricsSource {
+
+    private static final String[] NO_LABELS = new String[0];
+    private static final Node[] NO_CHILDREN = new Node[0];
+
+    // edges are kept sorted by their first character, which also gives alphabetical results
+    static final class Node {
+        String[] labels = NO_LABELS;
+        Node[] children = NO_CHILDREN;
+        Long bookId;
+
+        int find(char first) {
+            int low = 0;
+            int high = labels.length - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                char c = labels[mid].charAt(0);
+                if (c < first) {
+                    low = mid + 1;
+                } else if (c > first) {
+                    high = mid - 1;
+                } else {
+                    return mid;
+                }
+            }
+            return -(low + 1);
+        }
+
+        void insertEdge(int at, String label, Node child) {
+            labels = insert(labels, at, label);
+            children = insert(children, at, child);
+        }
+
+        void removeEdge(int at) {
+            labels = remove(labels, at);
+            children = remove(children, at);
+        }
+
+        private static <T> T[] insert(T[] array, int at, T value) {
+            T[] copy = Arrays.copyOf(array, array.length + 1);
+            System.arraycopy(array, at, copy, at + 1, array.length - at);
+            copy[at] = value;
+            return copy;
+        }
+
+        private static <T> T[] remove(T[] array, int at) {
+            T[] copy = Arrays.copyOf(array, array.length - 1);
+            System.arraycopy(array, at + 1, copy, at, array.length - at - 1);
+            return copy;
+        }
+    }
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private Node root = new Node();
+
+    private final Map<Long, String> titles = new HashMap<>();
+
+    private final Map<String, Set<Long>> trigramIndex = new HashMap<>();
+
+    private final double similarityThreshold;
+
+    BookRepository bookRepository;
+
+    EntityManager entityManager;
+
+    public TitleSuggester(BookRepository bookRepository, EntityManager entityManager,
+                          @Value("${javaTasks.app.suggest.similarityThreshold:0.3}") double similarityThreshold) {
+        this.bookRepository = bookRepository;
+        this.entityManager = entityManager;
+        this.similarityThreshold = similarityThreshold;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            root = new Node();
+            titles.clear();
+            trigramIndex.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        long count = 0;
+        try (Stream<Book> books = bookRepository.streamAllByOrderByIdAsc()) {
+            Iterator<Book> it = books.iterator();
+            while (it.hasNext()) {
+                index(it.next());
+                if (++count % BookRepository.EXPORT_FETCH_SIZE == 0) {
+                    entityManager.clear();
+                }
+            }
+        }
+        log.info("Title suggester rebuilt with {} books", count);
+    }
+
+    public void index(Book book) {
+        if (book.getTitle() == null) {
+            return;
+        }
+        String title = book.getTitle().toLowerCase(Locale.ROOT);
+
+        lock.writeLock().lock();
+        try {
+            removeLocked(book.getId());
+            titles.put(book.getId(), title);
+            insert(title, book.getId());
+            for (String trigram : trigrams(title)) {
+                trigramIndex.computeIfAbsent(trigram, t -> new HashSet<>()).add(book.getId());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long bookId) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(bookId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void removeLocked(Long bookId) {
+        String title = titles.remove(bookId);
+        if (title == null) {
+            return;
+        }
+        delete(root, title, 0, bookId);
+        for (String trigram : trigrams(title)) {
+            Set<Long> ids = trigramIndex.get(trigram);
+            ids.remove(bookId);
+            if (ids.isEmpty()) {
+                trigramIndex.remove(trigram);
+            }
+        }
+    }
+
+    public List<TitleSuggestion> suggest(String query, int limit) {
+        String prefix = query == null ? "" : query.toLowerCase(Locale.ROOT).trim();
+        if (prefix.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            Map<Long, TitleSuggestion> results = new LinkedHashMap<>();
+
+            List<Long> completions = new ArrayList<>();
+            Node start = descend(prefix);
+            if (start != null) {
+                collect(start, completions, limit);
+            }
+            for (Long id : completions) {
+                results.put(id, new TitleSuggestion(id, titles.get(id), 1.0));
+            }
+
+            if (results.size() < limit) {
+                similar(prefix).stream()
+                        .filter(s -> !results.containsKey(s.id()))
+                        .limit(limit - results.size())
+                        .forEach(s -> results.put(s.id(), s));
+            }
+            return new ArrayList<>(results.values());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private List<TitleSuggestion> similar(String query) {
+        Set<String> queryTrigrams = trigrams(query);
+        Map<Long, Integer> shared = new HashMap<>();
+        for (String trigram : queryTrigrams) {
+            Set<Long> ids = trigramIndex.get(trigram);
+            if (ids != null) {
+                ids.forEach(id -> shared.merge(id, 1, Integer::sum));
+            }
+        }
+
+        List<TitleSuggestion> matches = new ArrayList<>();
+        shared.forEach((id, common) -> {
+            String title = titles.get(id);
+            double score = (double) common / (queryTrigrams.size() + trigrams(title).size() - common);
+            if (score >= similarityThreshold) {
+                matches.add(new TitleSuggestion(id, title, score));
+            }
+        });
+        matches.sort(Comparator.comparingDouble(TitleSuggestion::score).reversed()
+                .thenComparing(TitleSuggestion::title));
+        return matches;
+    }
+
+    // padded like pg_trgm so that short words and word starts still produce trigrams
+    static Set<String> trigrams(String text) {
+        String padded = "  " + text + " ";
+        Set<String> trigrams = new LinkedHashSet<>();
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            trigrams.add(padded.substring(i, i + 3));
+        }
+        return trigrams;
+    }
+
+    private void insert(String key, Long bookId) {
+        Node node = root;
+        int i = 0;
+        while (i < key.length()) {
+            int at = node.find(key.charAt(i));
+            if (at < 0) {
+                Node leaf = new Node();
+                leaf.bookId = bookId;
+                node.insertEdge(-(at + 1), key.substring(i), leaf);
+                return;
+            }
+            String label = node.labels[at];
+            int common = commonPrefix(label, key, i);
+            if (common < label.length()) {
+                // split the edge where the new key diverges
+                Node middle = new Node();
+                middle.insertEdge(0, label.substring(common), node.children[at]);
+                node.labels[at] = label.substring(0, common);
+                node.children[at] = middle;
+            }
+            node = node.children[at];
+            i += common;
+        }
+        node.bookId = bookId;
+    }
+
+    /**
+     * Clears the key and merges nodes left with a single child, returning true when
+     * the node itself became empty and can be dropped by its parent.
+     */
+    private boolean delete(Node node, String key, int i, Long bookId) {
+        if (i == key.length()) {
+            if (bookId.equals(node.bookId)) {
+                node.bookId = null;
+            }
+        } else {
+            int at = node.find(key.charAt(i));
+            if (at < 0 || !key.startsWith(node.labels[at], i)) {
+                return false;
+            }
+            Node child = node.children[at];
+            if (delete(child, key, i + node.labels[at].length(), bookId)) {
+                node.removeEdge(at);
+            } else if (child.bookId == null && child.labels.length == 1) {
+                node.labels[at] = node.labels[at] + child.labels[0];
+                node.children[at] = child.children[0];
+            }
+        }
+        return node != root && node.bookId == null && node.labels.length == 0;
+    }
+
+    private Node descend(String prefix) {
+        Node node = root;
+        int i = 0;
+        while (i < prefix.length()) {
+            int at = node.find(prefix.charAt(i));
+            if (at < 0) {
+                return null;
+            }
+            String label = node.labels[at];
+            int common = commonPrefix(label, prefix, i);
+            if (i + common == prefix.length()) {
+                return node.children[at];
+            }
+            if (common < label.length()) {
+                return null;
+            }
+            node = node.children[at];
+            i += common;
+        }
+        return node;
+    }
+
+    private void collect(Node node, List<Long> out, int limit) {
+        if (node.bookId != null) {
+            out.add(node.bookId);
+        }
+        for (int c = 0; c < node.children.length && out.size() < limit; c++) {
+            collect(node.children[c], out, limit);
+        }
+    }
+
+    private static int commonPrefix(String label, String key, int offset) {
+        int max = Math.min(label.length(), key.length() - offset);
+        int i = 0;
+        while (i < max && label.charAt(i) == key.charAt(offset + i)) {
+            i++;
+        }
+        return i;
+    }
+
+    @Override
+    public String metricsName() {
+        return "titleSuggester";
+    }
+
+    @Override
+    public Map<String, Object> metrics() {
+        lock.readLock().lock();
+        try {
+            Map<String, Object> metrics = new LinkedHashMap<>();
+            metrics.put("titles", titles.size());
+            metrics.put("trigrams", trigramIndex.size());
+            return metrics;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.inspire.tasks.book.search;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+public final class Tokenizer {
+
+    private Tokenizer() {
+    }
+
+    /**
+     * Lowercases the text and splits it on anything that is not a letter or digit.
+     */
+    public static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        String lower = text.toLowerCase(Locale.ROOT);
+        int start = -1;
+        for (int i = 0; i <= lower.length(); i++) {
+            boolean wordChar = i < lower.length() && Character.isLetterOrDigit(lower.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                tokens.add(lower.substring(start, i));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+}
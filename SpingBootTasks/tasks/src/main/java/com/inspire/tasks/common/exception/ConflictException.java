@@ -0,0 +1,7 @@
+package com.inspire.tasks.common.exception;
+
+public class ConflictException extends RuntimeException {
+    public ConflictException(String message) {
+        super(message);
+    }
+}
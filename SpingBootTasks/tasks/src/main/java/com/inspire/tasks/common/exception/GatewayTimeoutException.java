@@ -0,0 +1,7 @@
+package com.inspire.tasks.common.exception;
+
+public class GatewayTimeoutException extends RuntimeException {
+    public GatewayTimeoutException(String message) {
+        super(message);
+    }
+}
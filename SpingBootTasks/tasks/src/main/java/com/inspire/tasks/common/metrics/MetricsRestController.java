@@ -0,0 +1,37 @@
+package com.inspire.tasks.common.metrics;
+
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+@CrossOrigin(origins = "*", maxAge = 3600)
+@RestController
+@PreAuthorize("hasRole('ADMIN')")
+@RequestMapping("/api/admin/metrics")
+public class MetricsRestController {
+
+    List<MetricsSource> sources;
+
+    public MetricsRestController(List<MetricsSource> sources){
+        this.sources = sources;
+    }
+
+    @GetMapping
+    public Map<String, Map<String, Object>> findAll() {
+        Map<String, Map<String, Object>> result = new TreeMap<>();
+        sources.forEach(source -> result.put(source.metricsName(), source.metrics()));
+        return result;
+    }
+
+    @GetMapping("/{name}")
+    public Map<String, Object> findByName(@PathVariable String name) {
+        return sources.stream()
+                .filter(source -> source.metricsName().equals(name))
+                .findFirst()
+                .map(MetricsSource::metrics)
+                .orElse(Map.of());
+    }
+}
@@ -0,0 +1,13 @@
+package com.inspire.tasks.common.metrics;
+
+import java.util.Map;
+
+/**
+ * Implemented by components that want their counters listed under /api/admin/metrics.
+ */
+public interface MetricsSource {
+
+    String metricsName();
+
+    Map<String, Object> metrics();
+}
@@ -0,0 +1,49 @@
+package com.inspire.tasks.roles;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * The roles table is tiny and practically static, so it is loaded once at startup and roles are
+ * attached to new users by reference instead of being looked up per request.
+ */
+@Component
+@Slf4j
+public class RoleRegistry {
+
+    RoleRepository roleRepository;
+
+    // replaced wholesale on refresh, so readers never see a half-filled map
+    private volatile Map<RoleTypes, Role> roles = Collections.emptyMap();
+
+    public RoleRegistry(RoleRepository roleRepository) {
+        this.roleRepository = roleRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void refresh() {
+        Map<RoleTypes, Role> loaded = new EnumMap<>(RoleTypes.class);
+        roleRepository.findAll().forEach(role -> loaded.put(role.getName(), role));
+        roles = Collections.unmodifiableMap(loaded);
+        log.info("Loaded roles {}", loaded.keySet());
+    }
+
+    public Role get(RoleTypes name) {
+        Role role = roles.get(name);
+        if (role == null) {
+            // the role may have been inserted after startup
+            refresh();
+            role = roles.get(name);
+        }
+        if (role == null) {
+            throw new RuntimeException("Error: Role is not found.");
+        }
+        return role;
+    }
+}
@@ -3,6 +3,8 @@ package com.inspire.tasks.user;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.inspire.tasks.common.exception.BadRequestException;
 import com.inspire.tasks.auth.dto.SignupRequest;
+import com.inspire.tasks.common.MessageResponse;
+import com.inspire.tasks.roles.RoleRegistry;
 import com.inspire.tasks.roles.RoleRepository;
 import jakarta.validation.Valid;
 import org.springframework.http.ResponseEntity;
@@ -28,11 +30,15 @@ public class AdminRestController {
 
     ObjectMapper objectMapper;
 
-    public AdminRestController(UserService userService, ObjectMapper objectMapper, RoleRepository roleRepository, PasswordEncoder encoder){
+    RoleRegistry roleRegistry;
+
+    public AdminRestController(UserService userService, ObjectMapper objectMapper, RoleRepository roleRepository, PasswordEncoder encoder,
+                               RoleRegistry roleRegistry){
         this.userService = userService;
         this.objectMapper = objectMapper;
         this.encoder = encoder;
         this.roleRepository = roleRepository;
+        this.roleRegistry = roleRegistry;
     }
 
 //    @PostConstruct
@@ -84,6 +90,12 @@ public class AdminRestController {
         return objectMapper.convertValue(userNode, User.class);
     }
 
+    @PostMapping("/roles/refresh")
+    public ResponseEntity<?> refreshRoles(){
+        roleRegistry.refresh();
+        return ResponseEntity.ok(new MessageResponse(200, "Roles reloaded successfully!"));
+    }
+
     @DeleteMapping("/users/{userId}")
     public ResponseEntity<?> deleteUser(@PathVariable Long userId){
 
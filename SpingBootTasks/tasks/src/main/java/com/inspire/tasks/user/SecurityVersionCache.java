@@ -0,0 +1,68 @@
+package com.inspire.tasks.user;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.inspire.tasks.common.metrics.MetricsSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Current security version per user id, used to reject claims-based tokens issued
+ * before the user was updated or deleted. The TTL bounds how long another node's
+ * change can go unnoticed.
+ */
+@Component
+public class SecurityVersionCache implements MetricsSource {
+
+    static final long DELETED = -1L;
+
+    private final Cache<Long, Long> cache;
+
+    UserRepository userRepository;
+
+    public SecurityVersionCache(UserRepository userRepository,
+                                @Value("${javaTasks.app.securityVersionCache.maxSize:10000}") long maxSize,
+                                @Value("${javaTasks.app.securityVersionCache.ttlSeconds:60}") long ttlSeconds) {
+        this.userRepository = userRepository;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+    }
+
+    public boolean isCurrent(Long userId, long securityVersion) {
+        long current = cache.get(userId, id -> userRepository.findSecurityVersionById(id).orElse(DELETED));
+        return current != DELETED && current == securityVersion;
+    }
+
+    public void update(Long userId, long securityVersion) {
+        if (userId != null) {
+            cache.put(userId, securityVersion);
+        }
+    }
+
+    public void markDeleted(Long userId) {
+        if (userId != null) {
+            cache.put(userId, DELETED);
+        }
+    }
+
+    @Override
+    public String metricsName() {
+        return "securityVersionCache";
+    }
+
+    @Override
+    public Map<String, Object> metrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("size", cache.estimatedSize());
+        metrics.put("hits", cache.stats().hitCount());
+        metrics.put("misses", cache.stats().missCount());
+        return metrics;
+    }
+}
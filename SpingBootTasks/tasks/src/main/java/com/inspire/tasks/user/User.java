@@ -44,6 +44,9 @@ public class User {
     @Enumerated(EnumType.STRING)
     private AuthProvider provider;
 
+    // bumped whenever the user is updated, so claims-based tokens issued before the change stop working
+    long securityVersion;
+
     @ManyToMany(fetch = FetchType.LAZY)
     @JoinTable(name = "user_roles",
             joinColumns = @JoinColumn(name = "user_id"),
@@ -0,0 +1,76 @@
+package com.inspire.tasks.user;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.inspire.tasks.common.metrics.MetricsSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Size-bounded, TTL-evicting cache of principals in front of {@link UserDetailsServiceImpl}.
+ * Saves the user lookup and the lazy roles query on every authenticated request.
+ */
+@Component
+@Slf4j
+public class UserDetailsCache implements MetricsSource {
+
+    private final Cache<String, UserDetailsImpl> cache;
+
+    UserDetailsServiceImpl userDetailsService;
+
+    public UserDetailsCache(UserDetailsServiceImpl userDetailsService,
+                            @Value("${javaTasks.app.principalCache.maxSize:10000}") long maxSize,
+                            @Value("${javaTasks.app.principalCache.ttlSeconds:300}") long ttlSeconds) {
+        this.userDetailsService = userDetailsService;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+    }
+
+    public UserDetailsImpl loadUserByUsername(String username) {
+        return cache.get(username, key -> (UserDetailsImpl) userDetailsService.loadUserByUsername(key));
+    }
+
+    public void evict(String username) {
+        if (username != null) {
+            cache.invalidate(username);
+        }
+    }
+
+    // the username may have been changed by the update, so match on id as well
+    public void evictByUserId(Long userId) {
+        if (userId != null) {
+            cache.asMap().values().removeIf(details -> userId.equals(details.getId()));
+            log.debug("Evicted cached principal for user {}", userId);
+        }
+    }
+
+    public void evictAll() {
+        cache.invalidateAll();
+    }
+
+    @Override
+    public String metricsName() {
+        return "principalCache";
+    }
+
+    @Override
+    public Map<String, Object> metrics() {
+        CacheStats stats = cache.stats();
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("size", cache.estimatedSize());
+        metrics.put("hits", stats.hitCount());
+        metrics.put("misses", stats.missCount());
+        metrics.put("hitRate", stats.hitRate());
+        metrics.put("evictions", stats.evictionCount());
+        return metrics;
+    }
+}
@@ -25,13 +25,21 @@ public class UserDetailsImpl implements UserDetails {
 
     private Collection<? extends GrantedAuthority> authorities;
 
+    private long securityVersion;
+
     public UserDetailsImpl(Long id, String username, String email, String password,
                            Collection<? extends GrantedAuthority> authorities) {
+        this(id, username, email, password, authorities, 0L);
+    }
+
+    public UserDetailsImpl(Long id, String username, String email, String password,
+                           Collection<? extends GrantedAuthority> authorities, long securityVersion) {
         this.id = id;
         this.username = username;
         this.email = email;
         this.password = password;
         this.authorities = authorities;
+        this.securityVersion = securityVersion;
     }
 
     public static UserDetailsImpl build(User user) {
@@ -44,7 +52,8 @@ public class UserDetailsImpl implements UserDetails {
                 user.getUsername(),
                 user.getEmail(),
                 user.getPassword(),
-                authorities);
+                authorities,
+                user.getSecurityVersion());
     }
 
     @Override
@@ -60,6 +69,10 @@ public class UserDetailsImpl implements UserDetails {
         return email;
     }
 
+    public long getSecurityVersion() {
+        return securityVersion;
+    }
+
     @Override
     public String getPassword() {
         return password;
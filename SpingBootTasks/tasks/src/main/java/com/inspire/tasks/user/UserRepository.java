@@ -1,5 +1,7 @@
 package com.inspire.tasks.user;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -21,6 +23,13 @@ public interface UserRepository extends JpaRepository<User, Long> {
     @Query("SELECT u FROM User u LEFT JOIN FETCH u.roles WHERE u.email = :email")
     Optional<User> findByEmailWithRoles(@Param("email") String email);
 
+    @Query("SELECT u.securityVersion FROM User u WHERE u.id = :id")
+    Optional<Long> findSecurityVersionById(@Param("id") Long id);
+
+    // [username, id] pairs
+    @Query("SELECT u.username, u.id FROM User u WHERE u.username IN :usernames")
+    List<Object[]> findIdsByUsernameIn(@Param("usernames") Collection<String> usernames);
+
     // Join Fetch using JPQL
 //    @Query("SELECT u FROM User u JOIN FETCH u.roles")
 
@@ -4,12 +4,13 @@ import com.inspire.tasks.common.exception.BadRequestException;
 import com.inspire.tasks.auth.dto.SignupRequest;
 import com.inspire.tasks.common.MessageResponse;
 import com.inspire.tasks.roles.Role;
-import com.inspire.tasks.roles.RoleRepository;
+import com.inspire.tasks.roles.RoleRegistry;
 import com.inspire.tasks.roles.RoleTypes;
 import jakarta.transaction.Transactional;
 import jakarta.validation.Valid;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.web.bind.annotation.RequestBody;
@@ -25,14 +26,21 @@ public class UserService {
 
     UserRepository userRepository;
 
-    RoleRepository roleRepository;
+    RoleRegistry roleRegistry;
 
     PasswordEncoder encoder;
 
-    UserService(UserRepository userRepository, RoleRepository roleRepository, PasswordEncoder encoder){
+    UserDetailsCache userDetailsCache;
+
+    SecurityVersionCache securityVersionCache;
+
+    UserService(UserRepository userRepository, RoleRegistry roleRegistry, PasswordEncoder encoder,
+                UserDetailsCache userDetailsCache, SecurityVersionCache securityVersionCache){
         this.userRepository = userRepository;
-        this.roleRepository = roleRepository;
+        this.roleRegistry = roleRegistry;
         this.encoder = encoder;
+        this.userDetailsCache = userDetailsCache;
+        this.securityVersionCache = securityVersionCache;
     }
 
     public ResponseEntity<?> createUser(@Valid @RequestBody SignupRequest signUpRequest){
@@ -53,29 +61,21 @@ public class UserService {
         Set<Role> roles = new HashSet<>();
 
         if (strRoles == null) {
-            Role userRole = roleRepository.findByName(RoleTypes.ROLE_USER)
-                    .orElseThrow(() -> new RuntimeException("Error: Role is not found."));
-            roles.add(userRole);
+            roles.add(roleRegistry.get(RoleTypes.ROLE_USER));
         } else {
             strRoles = signUpRequest.getRole().stream().map(String::toLowerCase).collect(Collectors.toSet());
             strRoles.forEach(role -> {
                 switch (role) {
                     case "admin":
-                        Role adminRole = roleRepository.findByName(RoleTypes.ROLE_ADMIN)
-                                .orElseThrow(() -> new RuntimeException("Error: Role is not found."));
-                        roles.add(adminRole);
+                        roles.add(roleRegistry.get(RoleTypes.ROLE_ADMIN));
 
                         break;
                     case "author":
-                        Role authorRole = roleRepository.findByName(RoleTypes.ROLE_AUTHOR)
-                                .orElseThrow(() -> new RuntimeException("Error: Role is not found."));
-                        roles.add(authorRole);
+                        roles.add(roleRegistry.get(RoleTypes.ROLE_AUTHOR));
 
                         break;
                     default:
-                        Role userRole = roleRepository.findByName(RoleTypes.ROLE_USER)
-                                .orElseThrow(() -> new RuntimeException("Error: Role is not found."));
-                        roles.add(userRole);
+                        roles.add(roleRegistry.get(RoleTypes.ROLE_USER));
                 }
             });
         }
@@ -89,7 +89,12 @@ public class UserService {
     }
 
     public ResponseEntity<?> save(User user) {
+        // any update may touch roles, so tokens carrying the old claims are invalidated
+        user.setSecurityVersion(user.getSecurityVersion() + 1);
         userRepository.save(user);
+        userDetailsCache.evict(user.getUsername());
+        userDetailsCache.evictByUserId(user.getId());
+        securityVersionCache.update(user.getId(), user.getSecurityVersion());
 
         log.info("updated the user {}" ,user.getId());
 
@@ -106,6 +111,8 @@ public class UserService {
     public ResponseEntity<?> deleteById(Long userId) {
         log.info("Deleting user with id {}", userId);
         userRepository.deleteById(userId);
+        userDetailsCache.evictByUserId(userId);
+        securityVersionCache.markDeleted(userId);
         return ResponseEntity.ok(new MessageResponse(200, "User has been deleted successfully!"));
     }
 
@@ -117,7 +124,20 @@ public class UserService {
         });
     }
 
-    boolean existsByUsername(String username) {
+    // Owner for a new row without a SELECT: the id comes from the principal cache and
+    // the reference is an uninitialized proxy
+    public User referenceByUsername(String username) {
+        Long userId;
+        try {
+            userId = userDetailsCache.loadUserByUsername(username).getId();
+        } catch (UsernameNotFoundException e) {
+            log.warn("User with username {} not found", username);
+            throw new BadRequestException("Username: " + username + " doesn't exists");
+        }
+        return userRepository.getReferenceById(userId);
+    }
+
+    public boolean existsByUsername(String username) {
         return userRepository.existsByUsername(username);
     }
 
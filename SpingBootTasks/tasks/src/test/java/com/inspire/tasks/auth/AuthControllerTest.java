@@ -1,11 +1,16 @@
 package com.inspire.tasks.auth;
 
 import com.inspire.tasks.auth.jwt.AuthTokenFilter;
+import com.inspire.tasks.auth.ratelimit.AuthRateLimitFilter;
 import com.inspire.tasks.common.exception.BadRequestException;
 import com.inspire.tasks.common.exception.UnauthorizedException;
 import com.inspire.tasks.common.MessageResponse;
 import com.inspire.tasks.auth.jwt.JwtUtils;
+import com.inspire.tasks.auth.session.SessionRegistry;
+import com.inspire.tasks.auth.session.TokenRevocationList;
 import com.inspire.tasks.user.*;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -29,10 +34,15 @@ import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.time.Instant;
+import java.util.Date;
 import java.util.Optional;
+import java.util.function.BiConsumer;
 
 import static org.junit.jupiter.api.Assertions.assertInstanceOf;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -42,7 +52,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 @WebMvcTest(controllers = AuthController.class,
         excludeFilters = @ComponentScan.Filter(
                 type = FilterType.ASSIGNABLE_TYPE,
-                classes = AuthTokenFilter.class
+                classes = {AuthTokenFilter.class, AuthRateLimitFilter.class}
         )
 )
 @Import(TestSecurityConfig.class)
@@ -60,6 +70,12 @@ class AuthControllerTest {
     @MockitoBean
     UserRepository userRepository;
 
+    @MockitoBean
+    SessionRegistry sessionRegistry;
+
+    @MockitoBean
+    TokenRevocationList tokenRevocationList;
+
     @Autowired
     MockMvc mockMvc;
 
@@ -67,6 +83,8 @@ class AuthControllerTest {
 
     private User user;
 
+    private Claims claims;
+
     @BeforeEach
     void setup() {
 
@@ -87,6 +105,9 @@ class AuthControllerTest {
                 null,
                 userDetails.getAuthorities()
         );
+
+        claims = Jwts.claims().setSubject("john").setId("token-1")
+                .setExpiration(new Date(System.currentTimeMillis() + 60_000));
     }
 
     @WithMockUser
@@ -97,6 +118,8 @@ class AuthControllerTest {
 
         ResponseCookie cookie = ResponseCookie.from("jwt", "token").build();
         when(jwtUtils.generateJwtCookie(any())).thenReturn(cookie);
+        when(jwtUtils.verifyJwtToken("token")).thenReturn(claims);
+        when(sessionRegistry.register(eq("john"), eq("token-1"), anyLong(), any())).thenReturn(true);
 
         when(userRepository.findByUsername("john"))
                 .thenReturn(Optional.of(user));
@@ -132,10 +155,17 @@ class AuthControllerTest {
 
     @WithMockUser
     @Test
-    void signin_SecondSessionAttempt_ThrowsBadRequest() throws Exception {
+    void signin_AtSessionLimit_RevokesEvictedSession() throws Exception {
 
+        Instant oldExpiry = Instant.now().plusSeconds(30);
         when(authenticationManager.authenticate(any())).thenReturn(auth);
         when(jwtUtils.generateJwtCookie(any())).thenReturn(ResponseCookie.from("jwt", "token").build());
+        when(jwtUtils.verifyJwtToken("token")).thenReturn(claims);
+        when(sessionRegistry.register(eq("john"), eq("token-1"), anyLong(), any())).thenAnswer(invocation -> {
+            BiConsumer<String, Instant> onEvicted = invocation.getArgument(3);
+            onEvicted.accept("token-0", oldExpiry);
+            return true;
+        });
         when(userRepository.findByUsername("john"))
                 .thenReturn(Optional.of(user));
 
@@ -146,14 +176,27 @@ class AuthControllerTest {
                 """))
                 .andExpect(status().isOk());
 
+        verify(tokenRevocationList).revoke("token-0", oldExpiry);
+    }
+
+    @WithMockUser
+    @Test
+    void signin_NodeAtSessionCap_ThrowsServiceUnavailable() throws Exception {
+
+        when(authenticationManager.authenticate(any())).thenReturn(auth);
+        when(jwtUtils.generateJwtCookie(any())).thenReturn(ResponseCookie.from("jwt", "token").build());
+        when(jwtUtils.verifyJwtToken("token")).thenReturn(claims);
+        when(sessionRegistry.register(eq("john"), eq("token-1"), anyLong(), any())).thenReturn(false);
+        when(userRepository.findByUsername("john"))
+                .thenReturn(Optional.of(user));
+
         mockMvc.perform(post("/api/auth/signin")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content("""
                      {"username":"john","password":"123456"}
                 """))
-                .andExpect(status().isBadRequest())
-                .andExpect(result ->
-                        assertInstanceOf(BadRequestException.class, result.getResolvedException()));
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(jsonPath("$.message").value("Error: Too many active sessions, try again later"));
     }
 
     @WithMockUser
@@ -178,21 +221,30 @@ class AuthControllerTest {
     @Test
     void signout_Success() throws Exception {
 
-        when(authenticationManager.authenticate(any())).thenReturn(auth);
-        when(jwtUtils.generateJwtCookie(any())).thenReturn(ResponseCookie.from("jwt", "token").build());
-        when(userRepository.findByUsername("john"));
-
-        mockMvc.perform(post("/api/auth/signin")
-                .contentType(MediaType.APPLICATION_JSON)
-                .content("""
-                     {"username":"john","password":"123456"}
-                """));
-
+        when(jwtUtils.getJwtFromCookies(any())).thenReturn("token");
+        when(jwtUtils.verifyJwtToken("token")).thenReturn(claims);
         when(jwtUtils.getCleanJwtCookie()).thenReturn(ResponseCookie.from("jwt", "").build());
 
         mockMvc.perform(get("/api/auth/signout"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.message").value("You've been signed out successfully!"));
+
+        verify(tokenRevocationList).revoke("token-1", claims.getExpiration().toInstant());
+        verify(sessionRegistry).remove("john", "token-1");
+    }
+
+    @WithMockUser
+    @Test
+    void signout_AlreadyRevokedToken_ThrowsBadRequest() throws Exception {
+
+        when(jwtUtils.getJwtFromCookies(any())).thenReturn("token");
+        when(jwtUtils.verifyJwtToken("token")).thenReturn(claims);
+        when(tokenRevocationList.isRevoked("token-1")).thenReturn(true);
+
+        mockMvc.perform(get("/api/auth/signout"))
+                .andExpect(status().isBadRequest());
+
+        verify(tokenRevocationList, never()).revoke(any(), any());
     }
 
     @WithMockUser
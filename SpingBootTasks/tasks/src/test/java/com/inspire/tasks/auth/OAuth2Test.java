@@ -3,7 +3,7 @@ package com.inspire.tasks.auth;
 import com.inspire.tasks.auth.jwt.JwtUtils;
 import com.inspire.tasks.auth.oauth.OAuth2SuccessHandler;
 import com.inspire.tasks.roles.Role;
-import com.inspire.tasks.roles.RoleRepository;
+import com.inspire.tasks.roles.RoleRegistry;
 import com.inspire.tasks.roles.RoleTypes;
 import com.inspire.tasks.user.User;
 import com.inspire.tasks.user.UserRepository;
@@ -32,7 +32,7 @@ class OAuth2Test {
     UserRepository userRepository;
 
     @Mock
-    RoleRepository roleRepository;
+    RoleRegistry roleRegistry;
 
     @Mock
     JwtUtils jwtUtils;
@@ -46,8 +46,8 @@ class OAuth2Test {
         Role role = new Role();
         role.setName(RoleTypes.ROLE_USER);
 
-        when(roleRepository.findByName(RoleTypes.ROLE_USER))
-                .thenReturn(Optional.of(role));
+        when(roleRegistry.get(RoleTypes.ROLE_USER))
+                .thenReturn(role);
 
         when(userRepository.findByEmailWithRoles("john@gmail.com"))
                 .thenReturn(Optional.empty());
@@ -55,7 +55,7 @@ class OAuth2Test {
         when(userRepository.save(any()))
                 .thenAnswer(inv -> inv.getArgument(0));
 
-        when(jwtUtils.generateTokenFromUsername(any()))
+        when(jwtUtils.generateToken(any()))
                 .thenReturn("jwt");
 
         OAuth2User oAuth2User = mock(OAuth2User.class);
@@ -91,7 +91,7 @@ class OAuth2Test {
         when(userRepository.findByEmailWithRoles("john@gmail.com"))
                 .thenReturn(Optional.of(existingUser));
 
-        when(jwtUtils.generateTokenFromUsername("john"))
+        when(jwtUtils.generateToken(any()))
                 .thenReturn("jwt");
 
         OAuth2User oAuth2User = mock(OAuth2User.class);
@@ -111,7 +111,7 @@ class OAuth2Test {
         successHandler.onAuthenticationSuccess(request, response, authentication);
 
         verify(userRepository, never()).save(any(User.class));
-        verify(jwtUtils).generateTokenFromUsername("john");
+        verify(jwtUtils).generateToken(argThat(principal -> principal.getUsername().equals("john")));
 
         assertThat(response.getRedirectedUrl())
                 .isEqualTo("/swagger-ui/index.html");
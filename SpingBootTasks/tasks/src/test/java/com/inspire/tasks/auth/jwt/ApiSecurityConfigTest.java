@@ -0,0 +1,93 @@
+package com.inspire.tasks.auth.jwt;
+
+import com.inspire.tasks.auth.session.TokenRevocationList;
+import com.inspire.tasks.user.SecurityVersionCache;
+import com.inspire.tasks.user.UserDetailsCache;
+import com.inspire.tasks.user.UserDetailsImpl;
+import com.inspire.tasks.user.UserDetailsServiceImpl;
+import io.jsonwebtoken.Claims;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+// runs the real API filter chain, which the controller tests swap for TestSecurityConfig
+@WebMvcTest(controllers = ApiSecurityConfigTest.StreamingController.class)
+@Import({ApiSecurityConfig.class, ApiSecurityConfigTest.StreamingController.class})
+class ApiSecurityConfigTest {
+
+    @RestController
+    static class StreamingController {
+
+        @GetMapping("/api/test/stream")
+        StreamingResponseBody stream() {
+            return out -> out.write("streamed".getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @MockitoBean
+    JwtUtils jwtUtils;
+
+    @MockitoBean
+    UserDetailsCache userDetailsCache;
+
+    @MockitoBean
+    SecurityVersionCache securityVersionCache;
+
+    @MockitoBean
+    TokenRevocationList tokenRevocationList;
+
+    @MockitoBean
+    UserDetailsServiceImpl userDetailsService;
+
+    @BeforeEach
+    void setup() {
+        Claims claims = mock(Claims.class);
+        when(claims.getSubject()).thenReturn("john");
+        when(jwtUtils.getJwtFromCookies(any())).thenReturn("token");
+        when(jwtUtils.verifyJwtToken("token")).thenReturn(claims);
+        when(userDetailsCache.loadUserByUsername("john")).thenReturn(new UserDetailsImpl(1L, "john", "john@example.com",
+                "encoded-pass", List.of(new SimpleGrantedAuthority("ROLE_USER"))));
+    }
+
+    @Test
+    void streamingResponse_AsyncDispatch_WritesTheBody() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/test/stream"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // the JWT filter doesn't run again for this dispatch
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().string("streamed"));
+    }
+
+    @Test
+    void streamingResponse_NoToken_IsRejectedBeforeStreaming() throws Exception {
+        when(jwtUtils.getJwtFromCookies(any())).thenReturn(null);
+
+        mockMvc.perform(get("/api/test/stream"))
+                .andExpect(request().asyncNotStarted())
+                .andExpect(status().is4xxClientError());
+    }
+}
@@ -0,0 +1,113 @@
+package com.inspire.tasks.auth.jwt;
+
+import com.inspire.tasks.auth.session.TokenRevocationList;
+import com.inspire.tasks.user.SecurityVersionCache;
+import com.inspire.tasks.user.UserDetailsCache;
+import com.inspire.tasks.user.UserDetailsImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import jakarta.servlet.http.Cookie;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AuthTokenFilterTest {
+
+    @Mock
+    UserDetailsCache userDetailsCache;
+
+    @Mock
+    SecurityVersionCache securityVersionCache;
+
+    @Mock
+    TokenRevocationList tokenRevocationList;
+
+    JwtUtils jwtUtils;
+
+    AuthTokenFilter filter;
+
+    UserDetailsImpl john;
+
+    @BeforeEach
+    void setup() {
+        jwtUtils = new JwtUtils();
+        ReflectionTestUtils.setField(jwtUtils, "jwtSecret", "c2VjcmV0LWtleS1mb3ItdGVzdHMtdGhhdC1pcy1sb25nLWVub3VnaC0xMjM0NTY=");
+        ReflectionTestUtils.setField(jwtUtils, "jwtExpirationMs", 60_000);
+        ReflectionTestUtils.setField(jwtUtils, "jwtCookie", "JWT");
+        ReflectionTestUtils.setField(jwtUtils, "claimsMode", true);
+        ReflectionTestUtils.setField(jwtUtils, "verifiedTokenCacheMaxSize", 100L);
+        ReflectionTestUtils.setField(jwtUtils, "verifiedTokenCacheTtlSeconds", 60L);
+        jwtUtils.init();
+
+        filter = new AuthTokenFilter(jwtUtils, userDetailsCache, securityVersionCache, tokenRevocationList);
+        john = new UserDetailsImpl(1L, "john", "john@example.com", "encoded-pass",
+                List.of(new SimpleGrantedAuthority("ROLE_AUTHOR")), 3L);
+    }
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    private MockHttpServletRequest requestWithToken(String token) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setCookies(new Cookie("JWT", token));
+        return request;
+    }
+
+    @Test
+    void claimsMode_CurrentVersion_AuthenticatesWithoutLoadingUser() throws Exception {
+        when(securityVersionCache.isCurrent(1L, 3L)).thenReturn(true);
+
+        filter.doFilter(requestWithToken(jwtUtils.generateToken(john)), new MockHttpServletResponse(), new MockFilterChain());
+
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        assertThat(authentication.getName()).isEqualTo("john");
+        assertThat(authentication.getAuthorities()).extracting("authority").containsExactly("ROLE_AUTHOR");
+        assertThat(((UserDetailsImpl) authentication.getPrincipal()).getId()).isEqualTo(1L);
+        verifyNoInteractions(userDetailsCache);
+    }
+
+    @Test
+    void claimsMode_StaleVersion_LeavesRequestUnauthenticated() throws Exception {
+        when(securityVersionCache.isCurrent(1L, 3L)).thenReturn(false);
+
+        filter.doFilter(requestWithToken(jwtUtils.generateToken(john)), new MockHttpServletResponse(), new MockFilterChain());
+
+        assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
+    }
+
+    @Test
+    void claimsMode_SubjectOnlyToken_FallsBackToUserLookup() throws Exception {
+        when(userDetailsCache.loadUserByUsername("john")).thenReturn(john);
+
+        filter.doFilter(requestWithToken(jwtUtils.generateTokenFromUsername("john")), new MockHttpServletResponse(), new MockFilterChain());
+
+        assertThat(SecurityContextHolder.getContext().getAuthentication().getName()).isEqualTo("john");
+        verifyNoInteractions(securityVersionCache);
+    }
+
+    @Test
+    void revokedToken_LeavesRequestUnauthenticated() throws Exception {
+        when(tokenRevocationList.isRevoked(any())).thenReturn(true);
+
+        filter.doFilter(requestWithToken(jwtUtils.generateToken(john)), new MockHttpServletResponse(), new MockFilterChain());
+
+        assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
+        verifyNoInteractions(securityVersionCache, userDetailsCache);
+    }
+}
@@ -0,0 +1,53 @@
+package com.inspire.tasks.auth.jwt;
+
+import io.jsonwebtoken.Claims;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtUtilsTest {
+
+    JwtUtils jwtUtils;
+
+    @BeforeEach
+    void setup() {
+        jwtUtils = new JwtUtils();
+        ReflectionTestUtils.setField(jwtUtils, "jwtSecret", "c2VjcmV0LWtleS1mb3ItdGVzdHMtdGhhdC1pcy1sb25nLWVub3VnaC0xMjM0NTY=");
+        ReflectionTestUtils.setField(jwtUtils, "jwtExpirationMs", 60_000);
+        ReflectionTestUtils.setField(jwtUtils, "jwtCookie", "JWT");
+        ReflectionTestUtils.setField(jwtUtils, "verifiedTokenCacheMaxSize", 100L);
+        ReflectionTestUtils.setField(jwtUtils, "verifiedTokenCacheTtlSeconds", 60L);
+        jwtUtils.init();
+    }
+
+    @Test
+    void verifyJwtToken_RepeatedToken_IsServedFromCache() {
+        String token = jwtUtils.generateTokenFromUsername("john");
+
+        Claims first = jwtUtils.verifyJwtToken(token);
+        Claims second = jwtUtils.verifyJwtToken(token);
+
+        assertEquals("john", first.getSubject());
+        assertSame(first, second);
+        assertEquals(1L, jwtUtils.metrics().get("hits"));
+    }
+
+    @Test
+    void verifyJwtToken_TamperedSignature_ReturnsNull() {
+        String token = jwtUtils.generateTokenFromUsername("john");
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA");
+
+        assertNull(jwtUtils.verifyJwtToken(tampered));
+        assertFalse(jwtUtils.validateJwtToken(tampered));
+    }
+
+    @Test
+    void verifyJwtToken_ExpiredToken_ReturnsNull() {
+        ReflectionTestUtils.setField(jwtUtils, "jwtExpirationMs", -1_000);
+        String token = jwtUtils.generateTokenFromUsername("john");
+
+        assertNull(jwtUtils.verifyJwtToken(token));
+    }
+}
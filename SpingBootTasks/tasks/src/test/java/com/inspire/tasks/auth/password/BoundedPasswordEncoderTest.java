@@ -0,0 +1,84 @@
+package com.inspire.tasks.auth.password;
+
+import com.inspire.tasks.common.exception.ServiceUnavailableException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoundedPasswordEncoderTest {
+
+    private final CountDownLatch started = new CountDownLatch(1);
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private final ExecutorService callers = Executors.newFixedThreadPool(2);
+
+    private BoundedPasswordEncoder encoder;
+
+    // blocks on the first encode so the pool can be saturated deterministically
+    private final PasswordEncoder blockingDelegate = new PasswordEncoder() {
+        @Override
+        public String encode(CharSequence rawPassword) {
+            started.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "encoded-" + rawPassword;
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            return encodedPassword.equals("encoded-" + rawPassword);
+        }
+    };
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        callers.shutdownNow();
+        encoder.destroy();
+    }
+
+    @Test
+    void encodeAndMatches_DelegateToWrappedEncoder() {
+        release.countDown();
+        encoder = new BoundedPasswordEncoder(blockingDelegate, 1, 1, 1_000);
+
+        String encoded = encoder.encode("secret");
+
+        assertEquals("encoded-secret", encoded);
+        assertTrue(encoder.matches("secret", encoded));
+        assertEquals(2L, encoder.metrics().get("completed"));
+    }
+
+    @Test
+    void encode_QueueFull_FailsFast() throws Exception {
+        encoder = new BoundedPasswordEncoder(blockingDelegate, 1, 1, 5_000);
+
+        callers.submit(() -> encoder.encode("first"));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        callers.submit(() -> encoder.encode("queued"));
+        while ((int) encoder.metrics().get("queueDepth") == 0) {
+            Thread.onSpinWait();
+        }
+
+        assertThrows(ServiceUnavailableException.class, () -> encoder.encode("rejected"));
+        assertEquals(1L, encoder.metrics().get("rejected"));
+    }
+
+    @Test
+    void encode_Timeout_ThrowsServiceUnavailable() {
+        encoder = new BoundedPasswordEncoder(blockingDelegate, 1, 1, 50);
+
+        assertThrows(ServiceUnavailableException.class, () -> encoder.encode("slow"));
+    }
+}
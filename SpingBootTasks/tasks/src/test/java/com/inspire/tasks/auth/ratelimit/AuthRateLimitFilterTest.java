@@ -0,0 +1,148 @@
+package com.inspire.tasks.auth.ratelimit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AuthRateLimitFilterTest {
+
+    AuthRateLimitFilter filter;
+
+    @BeforeEach
+    void setup() {
+        filter = new AuthRateLimitFilter(new ObjectMapper(), true, 10, 1, 2, 1, 1_000);
+    }
+
+    private MockHttpServletRequest signin(String username, String remoteAddr) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/auth/signin");
+        request.setRemoteAddr(remoteAddr);
+        request.setContentType("application/json");
+        request.setContent(("{\"username\":\"" + username + "\",\"password\":\"123456\"}").getBytes(StandardCharsets.UTF_8));
+        return request;
+    }
+
+    @Test
+    void signin_UsernameOverLimit_Returns429BeforeReachingController() throws Exception {
+        filter.doFilter(signin("john", "10.0.0.1"), new MockHttpServletResponse(), new MockFilterChain());
+        filter.doFilter(signin("John", "10.0.0.2"), new MockHttpServletResponse(), new MockFilterChain());
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(signin("john", "10.0.0.3"), response, chain);
+
+        assertEquals(429, response.getStatus());
+        assertNotNull(response.getHeader(HttpHeaders.RETRY_AFTER));
+        assertNull(chain.getRequest());
+        assertEquals(1L, filter.metrics().get("rejectedByUsername"));
+    }
+
+    @Test
+    void signin_WithinLimit_ControllerCanStillReadBody() throws Exception {
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(signin("john", "10.0.0.1"), new MockHttpServletResponse(), chain);
+
+        String body = new String(chain.getRequest().getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+        assertTrue(body.contains("\"username\":\"john\""));
+    }
+
+    // a chunked request carries no Content-Length
+    private MockHttpServletRequest chunked(MockHttpServletRequest request) {
+        return new MockHttpServletRequest(request.getServletContext(), request.getMethod(), request.getRequestURI()) {
+            {
+                setRemoteAddr(request.getRemoteAddr());
+                setContent(request.getContentAsByteArray());
+            }
+
+            @Override
+            public long getContentLengthLong() {
+                return -1;
+            }
+
+            @Override
+            public int getContentLength() {
+                return -1;
+            }
+        };
+    }
+
+    @Test
+    void signin_ChunkedBody_IsStillLimitedPerUsername() throws Exception {
+        filter.doFilter(chunked(signin("john", "10.0.0.1")), new MockHttpServletResponse(), new MockFilterChain());
+        filter.doFilter(chunked(signin("john", "10.0.0.2")), new MockHttpServletResponse(), new MockFilterChain());
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(chunked(signin("john", "10.0.0.3")), response, new MockFilterChain());
+
+        assertEquals(429, response.getStatus());
+        assertEquals(1L, filter.metrics().get("rejectedByUsername"));
+    }
+
+    @Test
+    void signin_OversizedBody_Returns413WithOrWithoutContentLength() throws Exception {
+        MockHttpServletRequest padded = signin("john" + " ".repeat(20_000), "10.0.0.1");
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(padded, response, chain);
+        assertEquals(413, response.getStatus());
+        assertNull(chain.getRequest());
+
+        response = new MockHttpServletResponse();
+        chain = new MockFilterChain();
+        filter.doFilter(chunked(padded), response, chain);
+        assertEquals(413, response.getStatus());
+        assertNull(chain.getRequest());
+    }
+
+    @Test
+    void cachedBody_ReadListener_IsToldTheBodyIsAvailableAndRead() throws Exception {
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(signin("john", "10.0.0.1"), new MockHttpServletResponse(), chain);
+        ServletInputStream in = chain.getRequest().getInputStream();
+        ByteArrayOutputStream read = new ByteArrayOutputStream();
+        boolean[] allRead = {false};
+
+        in.setReadListener(new ReadListener() {
+            @Override
+            public void onDataAvailable() throws IOException {
+                read.write(in.readAllBytes());
+            }
+
+            @Override
+            public void onAllDataRead() {
+                allRead[0] = true;
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                fail(t);
+            }
+        });
+
+        assertTrue(allRead[0]);
+        assertTrue(read.toString(StandardCharsets.UTF_8).contains("\"username\":\"john\""));
+    }
+
+    @Test
+    void nonAuthPath_IsNotLimited() throws Exception {
+        for (int i = 0; i < 20; i++) {
+            MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/lib/books");
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            filter.doFilter(request, response, new MockFilterChain());
+            assertEquals(200, response.getStatus());
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.inspire.tasks.auth.ratelimit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimiterTest {
+
+    AtomicLong clock;
+
+    RateLimiter rateLimiter;
+
+    @BeforeEach
+    void setup() {
+        clock = new AtomicLong(TimeUnit.HOURS.toNanos(1));
+        // 3 tokens, one back every second
+        rateLimiter = new RateLimiter(3, 60, 2, clock::get);
+    }
+
+    @Test
+    void tryAcquire_AllowsBurstUpToCapacity() {
+        assertEquals(0, rateLimiter.tryAcquire("10.0.0.1"));
+        assertEquals(0, rateLimiter.tryAcquire("10.0.0.1"));
+        assertEquals(0, rateLimiter.tryAcquire("10.0.0.1"));
+
+        long wait = rateLimiter.tryAcquire("10.0.0.1");
+        assertEquals(TimeUnit.SECONDS.toNanos(1), wait);
+        assertEquals(0, rateLimiter.tryAcquire("10.0.0.2"));
+    }
+
+    @Test
+    void tryAcquire_RefillsOverTime() {
+        for (int i = 0; i < 3; i++) {
+            rateLimiter.tryAcquire("10.0.0.1");
+        }
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(1));
+
+        assertEquals(0, rateLimiter.tryAcquire("10.0.0.1"));
+        assertTrue(rateLimiter.tryAcquire("10.0.0.1") > 0);
+    }
+
+    @Test
+    void evictIdle_DropsRefilledBuckets() {
+        rateLimiter.tryAcquire("10.0.0.1");
+        rateLimiter.tryAcquire("10.0.0.2");
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        rateLimiter.evictIdle();
+
+        assertEquals(0, rateLimiter.size());
+    }
+
+    @Test
+    void tryAcquire_KeyLimitReached_RejectsNewKeys() {
+        rateLimiter.tryAcquire("10.0.0.1");
+        rateLimiter.tryAcquire("10.0.0.2");
+
+        assertTrue(rateLimiter.tryAcquire("10.0.0.3") > 0);
+        assertEquals(0, rateLimiter.tryAcquire("10.0.0.1"));
+    }
+}
@@ -0,0 +1,149 @@
+package com.inspire.tasks.auth.session;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.IntConsumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SessionRegistryTest {
+
+    SessionRegistry sessionRegistry;
+
+    long inOneHour;
+
+    Map<String, Instant> evicted;
+
+    BiConsumer<String, Instant> onEvicted;
+
+    @BeforeEach
+    void setup() {
+        sessionRegistry = new SessionRegistry(2, 3, 1_000, 60);
+        inOneHour = System.currentTimeMillis() + 3_600_000;
+        evicted = new LinkedHashMap<>();
+        onEvicted = evicted::put;
+    }
+
+    @Test
+    void register_PastPerUserLimit_EvictsOldestSession() {
+        assertTrue(sessionRegistry.register("john", "t1", inOneHour - 2, onEvicted));
+        assertTrue(sessionRegistry.register("john", "t2", inOneHour - 1, onEvicted));
+        assertTrue(sessionRegistry.register("john", "t3", inOneHour, onEvicted));
+
+        assertEquals(2, sessionRegistry.activeSessions("john"));
+        assertFalse(sessionRegistry.isActive("john", "t1"));
+        assertTrue(sessionRegistry.isActive("john", "t3"));
+        assertEquals(Map.of("t1", Instant.ofEpochMilli(inOneHour - 2)), evicted);
+        assertEquals(2, sessionRegistry.metrics().get("sessions"));
+        assertEquals(2, sessionRegistry.scheduledSessions());
+    }
+
+    @Test
+    void register_NodeWideLimit_RejectsOtherUsers() {
+        sessionRegistry.register("john", "t1", inOneHour, onEvicted);
+        sessionRegistry.register("john", "t2", inOneHour, onEvicted);
+        sessionRegistry.register("mary", "t3", inOneHour, onEvicted);
+
+        assertFalse(sessionRegistry.register("bob", "t4", inOneHour, onEvicted));
+        assertEquals(3, sessionRegistry.metrics().get("sessions"));
+    }
+
+    @Test
+    void register_NodeAtLimit_StillReplacesOwnSession() {
+        sessionRegistry.register("john", "t1", inOneHour, onEvicted);
+        sessionRegistry.register("john", "t2", inOneHour, onEvicted);
+        sessionRegistry.register("mary", "t3", inOneHour, onEvicted);
+
+        assertTrue(sessionRegistry.register("john", "t4", inOneHour, onEvicted));
+        assertEquals(3, sessionRegistry.metrics().get("sessions"));
+        assertEquals(1, evicted.size());
+    }
+
+    @Test
+    void remove_FreesSlot() {
+        sessionRegistry.register("john", "t1", inOneHour, onEvicted);
+        sessionRegistry.register("john", "t2", inOneHour, onEvicted);
+
+        assertTrue(sessionRegistry.remove("john", "t1"));
+        assertFalse(sessionRegistry.remove("john", "t1"));
+        assertTrue(sessionRegistry.register("john", "t3", inOneHour, onEvicted));
+        assertTrue(evicted.isEmpty());
+    }
+
+    @Test
+    void expireSessions_DropsExpiredEntries() {
+        sessionRegistry.register("john", "t1", System.currentTimeMillis() - 1, onEvicted);
+        sessionRegistry.register("mary", "t2", inOneHour, onEvicted);
+
+        sessionRegistry.expireSessions();
+
+        assertFalse(sessionRegistry.isActive("john", "t1"));
+        assertEquals(1, sessionRegistry.metrics().get("sessions"));
+        assertEquals(1, sessionRegistry.metrics().get("users"));
+    }
+
+    @Test
+    void register_ConcurrentUsers_NeverExceedNodeLimit() throws InterruptedException {
+        sessionRegistry = new SessionRegistry(1, 50, 1_000, 60);
+        AtomicInteger registered = new AtomicInteger();
+
+        runConcurrently(500, i -> {
+            if (sessionRegistry.register("user" + i, "t" + i, inOneHour, onEvicted)) {
+                registered.incrementAndGet();
+            }
+        });
+
+        assertEquals(50, registered.get());
+        assertEquals(50, sessionRegistry.metrics().get("sessions"));
+        assertEquals(50, sessionRegistry.scheduledSessions());
+    }
+
+    @Test
+    void registerAndRemove_Concurrently_LeaveNothingOnTheWheel() throws InterruptedException {
+        sessionRegistry = new SessionRegistry(1, 10_000, 1_000, 60);
+
+        runConcurrently(2_000, i -> {
+            String user = "user" + (i / 2);
+            if (i % 2 == 0) {
+                sessionRegistry.register(user, "t", inOneHour, onEvicted);
+            } else {
+                sessionRegistry.remove(user, "t");
+            }
+        });
+        for (int i = 0; i < 1_000; i++) {
+            sessionRegistry.remove("user" + i, "t");
+        }
+
+        assertEquals(0, sessionRegistry.metrics().get("sessions"));
+        assertEquals(0, sessionRegistry.scheduledSessions());
+    }
+
+    private static void runConcurrently(int tasks, IntConsumer task) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        for (int i = 0; i < tasks; i++) {
+            int n = i;
+            executor.execute(() -> {
+                try {
+                    start.await();
+                    task.accept(n);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+    }
+}
@@ -0,0 +1,107 @@
+package com.inspire.tasks.auth.session;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TokenRevocationListTest {
+
+    @Mock
+    RevokedTokenRepository revokedTokenRepository;
+
+    TokenRevocationList tokenRevocationList;
+
+    Instant inOneHour;
+
+    @BeforeEach
+    void setup() {
+        tokenRevocationList = new TokenRevocationList(revokedTokenRepository, 100, 0.01, 30_000);
+        inOneHour = Instant.now().plusSeconds(3_600);
+    }
+
+    @Test
+    void revoke_PersistsAndIsCheckedLocally() {
+        tokenRevocationList.revoke("token-1", inOneHour);
+
+        assertTrue(tokenRevocationList.isRevoked("token-1"));
+        assertFalse(tokenRevocationList.isRevoked("token-2"));
+        verify(revokedTokenRepository).save(any(RevokedToken.class));
+        verify(revokedTokenRepository, never()).existsById(any());
+    }
+
+    @Test
+    void sync_PicksUpRevocationsFromOtherNodes() {
+        when(revokedTokenRepository.findAllByRevokedAtAfterAndExpiresAtAfter(any(), any()))
+                .thenReturn(List.of(new RevokedToken("remote-token", inOneHour, Instant.now())));
+
+        tokenRevocationList.sync();
+
+        assertTrue(tokenRevocationList.isRevoked("remote-token"));
+    }
+
+    @Test
+    void purgeExpired_RebuildsFilterWithoutExpiredTokens() {
+        tokenRevocationList.revoke("expired-token", Instant.now().minusSeconds(1));
+        tokenRevocationList.revoke("live-token", inOneHour);
+
+        tokenRevocationList.purgeExpired();
+
+        verify(revokedTokenRepository).deleteExpired(any());
+        assertFalse(tokenRevocationList.isRevoked("expired-token"));
+        assertTrue(tokenRevocationList.isRevoked("live-token"));
+        assertEquals(1L, tokenRevocationList.metrics().get("size"));
+    }
+
+    @Test
+    void purgeExpired_ConcurrentRevocations_AreNeverLost() throws Exception {
+        // large enough that the local set never overflows into repository lookups
+        tokenRevocationList = new TokenRevocationList(revokedTokenRepository, 10_000, 0.01, 30_000);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        AtomicBoolean revoking = new AtomicBoolean(true);
+        try {
+            Future<?> purging = executor.submit(() -> {
+                while (revoking.get()) {
+                    tokenRevocationList.purgeExpired();
+                }
+            });
+            List<Future<?>> revokers = new ArrayList<>();
+            for (int t = 0; t < 3; t++) {
+                int thread = t;
+                revokers.add(executor.submit(() -> {
+                    for (int i = 0; i < 2_000; i++) {
+                        tokenRevocationList.revoke("token-" + thread + "-" + i, inOneHour);
+                    }
+                }));
+            }
+            for (Future<?> revoker : revokers) {
+                revoker.get(30, TimeUnit.SECONDS);
+            }
+            revoking.set(false);
+            purging.get(30, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        for (int t = 0; t < 3; t++) {
+            for (int i = 0; i < 2_000; i++) {
+                assertTrue(tokenRevocationList.isRevoked("token-" + t + "-" + i), "token-" + t + "-" + i);
+            }
+        }
+    }
+}
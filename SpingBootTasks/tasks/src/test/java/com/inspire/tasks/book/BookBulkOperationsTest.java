@@ -0,0 +1,169 @@
+package com.inspire.tasks.book;
+
+import com.inspire.tasks.book.author.AuthorCatalog;
+import com.inspire.tasks.book.dto.BookBulkFilter;
+import com.inspire.tasks.book.dto.BookBulkUpdateRequest;
+import com.inspire.tasks.book.search.BookSearchIndex;
+import com.inspire.tasks.book.search.TitleSuggester;
+import com.inspire.tasks.common.exception.BadRequestException;
+import com.inspire.tasks.common.exception.UnauthorizedException;
+import com.inspire.tasks.user.UserRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import jakarta.persistence.TypedQuery;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.context.SecurityContextImpl;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BookBulkOperationsTest {
+
+    @Mock
+    BookRepository bookRepository;
+
+    @Mock
+    UserRepository userRepository;
+
+    @Mock
+    BookService bookService;
+
+    @Mock
+    BookSearchIndex bookSearchIndex;
+
+    @Mock
+    TitleSuggester titleSuggester;
+
+    @Mock
+    AuthorCatalog authorCatalog;
+
+    @Mock
+    EntityManager entityManager;
+
+    @Mock
+    PlatformTransactionManager transactionManager;
+
+    BookBulkOperations bulkOperations;
+
+    @BeforeEach
+    void setup() {
+        bulkOperations = new BookBulkOperations(bookRepository, userRepository, bookService, bookSearchIndex,
+                titleSuggester, authorCatalog, entityManager, transactionManager);
+    }
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    private void loginAs(String username, String role) {
+        SecurityContextHolder.setContext(new SecurityContextImpl(new UsernamePasswordAuthenticationToken(username, null,
+                List.of(new SimpleGrantedAuthority(role)))));
+    }
+
+    private BookBulkFilter filter(List<Long> ids, String author, String owner) {
+        BookBulkFilter filter = new BookBulkFilter();
+        filter.setIds(ids);
+        filter.setAuthor(author);
+        filter.setOwner(owner);
+        return filter;
+    }
+
+    @Test
+    void predicate_Author_RestrictsToCallersBooks() {
+        loginAs("john", "ROLE_AUTHOR");
+        when(userRepository.findIdsByUsernameIn(List.of("john"))).thenReturn(List.<Object[]>of(new Object[]{"john", 7L}));
+
+        BookBulkOperations.Predicate predicate = bulkOperations.predicate(filter(null, "Herbert", null));
+
+        assertEquals(" WHERE 1 = 1 AND b.authorName = :author AND b.userId.id = :callerId", predicate.where());
+        assertEquals("herbert", predicate.params().get("author"));
+        assertEquals(7L, predicate.params().get("callerId"));
+    }
+
+    @Test
+    void predicate_AdminWithIdsAndOwner_HasNoCallerCheck() {
+        loginAs("root", "ROLE_ADMIN");
+        when(userRepository.findIdsByUsernameIn(List.of("mary"))).thenReturn(List.<Object[]>of(new Object[]{"mary", 3L}));
+
+        BookBulkOperations.Predicate predicate = bulkOperations.predicate(filter(List.of(1L, 2L), null, "mary"));
+
+        assertEquals(" WHERE 1 = 1 AND b.id IN :ids AND b.userId.id = :ownerId", predicate.where());
+        assertEquals(3L, predicate.params().get("ownerId"));
+    }
+
+    @Test
+    void delete_UnknownOwner_AffectsNothing() {
+        loginAs("root", "ROLE_ADMIN");
+        when(userRepository.findIdsByUsernameIn(List.of("ghost"))).thenReturn(List.of());
+
+        assertEquals(0, bulkOperations.delete(filter(null, null, "ghost")).affected());
+        verifyNoInteractions(entityManager, bookSearchIndex);
+    }
+
+    @Test
+    void delete_EmptyFilter_ThrowsBadRequest() {
+        loginAs("root", "ROLE_ADMIN");
+
+        assertThrows(BadRequestException.class, () -> bulkOperations.delete(new BookBulkFilter()));
+    }
+
+    @Test
+    void update_OwnerAsAuthor_ThrowsUnauthorized() {
+        loginAs("john", "ROLE_AUTHOR");
+        BookBulkUpdateRequest request = new BookBulkUpdateRequest();
+        request.setFilter(filter(List.of(1L), null, null));
+        request.setOwner("mary");
+
+        assertThrows(UnauthorizedException.class, () -> bulkOperations.update(request));
+        verifyNoInteractions(entityManager);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void update_ChangedRows_MovesTheCatalogETag() {
+        BookCatalogVersion catalogVersion = BookCatalogVersionTest.inMemory();
+        BookService realBookService = new BookService(bookRepository, null, null, null, null, bookSearchIndex,
+                titleSuggester, null, authorCatalog, catalogVersion, transactionManager);
+        bulkOperations = new BookBulkOperations(bookRepository, userRepository, realBookService, bookSearchIndex,
+                titleSuggester, authorCatalog, entityManager, transactionManager);
+        loginAs("root", "ROLE_ADMIN");
+        TypedQuery<Long> select = mock(TypedQuery.class);
+        when(entityManager.createQuery(startsWith("SELECT"), eq(Long.class))).thenReturn(select);
+        when(select.setParameter(anyString(), any())).thenReturn(select);
+        when(select.setLockMode(any())).thenReturn(select);
+        when(select.getResultList()).thenReturn(List.of(1L));
+        Query update = mock(Query.class);
+        when(entityManager.createQuery(startsWith("UPDATE"))).thenReturn(update);
+        when(update.setParameter(anyString(), any())).thenReturn(update);
+        BookBulkUpdateRequest request = new BookBulkUpdateRequest();
+        request.setFilter(filter(List.of(1L), null, null));
+        request.setDescription("Revised");
+        String etag = catalogVersion.etag();
+
+        assertEquals(1, bulkOperations.update(request).affected());
+
+        assertNotEquals(etag, catalogVersion.etag());
+    }
+
+    @Test
+    void update_NothingToSet_ThrowsBadRequest() {
+        BookBulkUpdateRequest request = new BookBulkUpdateRequest();
+        request.setFilter(filter(List.of(1L), null, null));
+
+        assertThrows(BadRequestException.class, () -> bulkOperations.update(request));
+    }
+}
@@ -0,0 +1,54 @@
+package com.inspire.tasks.book;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.junit.jupiter.api.Test;
+
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BookCacheConfigTest {
+
+    @Test
+    void hibernateCacheConf_DefinesBoundedBookRegions() throws Exception {
+        try (CaffeineCachingProvider provider = new CaffeineCachingProvider();
+             CacheManager cacheManager = provider.getCacheManager(
+                     getClass().getClassLoader().getResource("hibernate-cache.conf").toURI(),
+                     getClass().getClassLoader())) {
+
+            CaffeineConfiguration<?, ?> books = cacheManager.getCache(Book.CACHE_REGION)
+                    .getConfiguration(CaffeineConfiguration.class);
+            assertEquals(10_000L, books.getMaximumSize().getAsLong());
+            assertEquals(TimeUnit.MINUTES.toNanos(10), books.getExpireAfterWrite().getAsLong());
+            assertTrue(books.isStatisticsEnabled());
+
+            assertNotNull(cacheManager.getCache(BookRepository.QUERY_CACHE_REGION));
+            assertTrue(cacheManager.getCache("default-update-timestamps-region")
+                    .getConfiguration(CaffeineConfiguration.class).getExpireAfterWrite().isEmpty());
+        }
+    }
+
+    @Test
+    void bookCacheMetrics_ReadRegionStatistics() throws Exception {
+        try (CaffeineCachingProvider provider = new CaffeineCachingProvider();
+             CacheManager cacheManager = provider.getCacheManager(
+                     getClass().getClassLoader().getResource("hibernate-cache.conf").toURI(),
+                     getClass().getClassLoader())) {
+
+            Cache<Object, Object> books = cacheManager.getCache(Book.CACHE_REGION);
+            books.put(1L, "book");
+            books.get(1L);
+            books.get(2L);
+
+            Map<?, ?> entities = (Map<?, ?>) new BookCacheMetrics().metrics().get("entities");
+            assertEquals(1L, entities.get("hits"));
+            assertEquals(1L, entities.get("misses"));
+            assertEquals(1L, entities.get("puts"));
+            assertEquals(0.5, entities.get("hitRatio"));
+        }
+    }
+}
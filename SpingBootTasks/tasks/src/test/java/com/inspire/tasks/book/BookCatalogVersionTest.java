@@ -0,0 +1,94 @@
+package com.inspire.tasks.book;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.quality.Strictness;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class BookCatalogVersionTest {
+
+    /**
+     * A repository backed by a single in-memory row, shared by every instance built on it.
+     */
+    static CatalogVersionRepository sharedRow() {
+        AtomicReference<long[]> row = new AtomicReference<>();
+        CatalogVersionRepository repository = mock(CatalogVersionRepository.class,
+                withSettings().strictness(Strictness.LENIENT));
+        when(repository.findEpochAndVersion(BookCatalogVersion.NAME)).thenAnswer(invocation -> {
+            long[] current = row.get();
+            return current == null ? List.of() : List.<Object[]>of(new Object[]{current[0], current[1]});
+        });
+        when(repository.create(eq(BookCatalogVersion.NAME), anyLong())).thenAnswer(invocation -> {
+            row.compareAndSet(null, new long[]{invocation.getArgument(1), 0});
+            return 1;
+        });
+        when(repository.increment(BookCatalogVersion.NAME)).thenAnswer(invocation -> {
+            long[] current = row.get();
+            if (current == null) {
+                return 0;
+            }
+            row.set(new long[]{current[0], current[1] + 1});
+            return 1;
+        });
+        return repository;
+    }
+
+    static BookCatalogVersion inMemory() {
+        return new BookCatalogVersion(sharedRow(), 0);
+    }
+
+    @Test
+    void etag_MissingRow_IsCreated() {
+        CatalogVersionRepository repository = sharedRow();
+
+        String etag = new BookCatalogVersion(repository, 1_000).etag();
+
+        assertTrue(etag.matches("\"[0-9a-z]+-0\""), etag);
+        verify(repository).create(eq(BookCatalogVersion.NAME), anyLong());
+    }
+
+    @Test
+    void bump_ChangesETagAtOnce() {
+        BookCatalogVersion catalogVersion = new BookCatalogVersion(sharedRow(), 60_000);
+        String etag = catalogVersion.etag();
+
+        catalogVersion.bump();
+
+        assertNotEquals(etag, catalogVersion.etag());
+        assertEquals(1, catalogVersion.current());
+    }
+
+    @Test
+    void bumpOnAnotherInstance_IsSeenAfterTheRefreshInterval() {
+        CatalogVersionRepository repository = sharedRow();
+        BookCatalogVersion writer = new BookCatalogVersion(repository, 60_000);
+        BookCatalogVersion polling = new BookCatalogVersion(repository, 0);
+        BookCatalogVersion cached = new BookCatalogVersion(repository, 60_000);
+        String etag = polling.etag();
+        cached.etag();
+
+        writer.bump();
+
+        assertEquals(writer.etag(), polling.etag());
+        assertNotEquals(etag, polling.etag());
+        assertEquals(etag, cached.etag());
+    }
+
+    @Test
+    void bump_StoreUnavailable_DoesNotFailTheWrite() {
+        CatalogVersionRepository repository = sharedRow();
+        BookCatalogVersion catalogVersion = new BookCatalogVersion(repository, 60_000);
+        String etag = catalogVersion.etag();
+        when(repository.increment(BookCatalogVersion.NAME)).thenThrow(new DataAccessResourceFailureException("down"));
+
+        assertDoesNotThrow(catalogVersion::bump);
+        assertEquals(etag, catalogVersion.etag());
+    }
+}
@@ -0,0 +1,77 @@
+package com.inspire.tasks.book;
+
+import com.inspire.tasks.common.config.JacksonConfig;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BookExporterTest {
+
+    @Mock
+    BookRepository bookRepository;
+
+    @Mock
+    EntityManager entityManager;
+
+    BookExporter bookExporter;
+
+    @BeforeEach
+    void setup() {
+        bookExporter = new BookExporter(bookRepository, entityManager, new JacksonConfig().objectMapper());
+    }
+
+    private Book book(long id, String title, String description) {
+        Book book = new Book(title, "john", description, null);
+        book.setId(id);
+        return book;
+    }
+
+    @Test
+    void export_Ndjson_WritesOneObjectPerLine() throws Exception {
+        when(bookRepository.streamAllByOrderByIdAsc())
+                .thenReturn(Stream.of(book(1, "dune", "sand"), book(2, "emma", "match")));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long count = bookExporter.export(BookExporter.NDJSON, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, count);
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].startsWith("{") && lines[0].contains("\"title\":\"dune\""));
+        assertFalse(lines[0].contains("userId"));
+    }
+
+    @Test
+    void export_Csv_QuotesFieldsWithSeparators() throws Exception {
+        when(bookRepository.streamAllByOrderByIdAsc())
+                .thenReturn(Stream.of(book(1, "dune", "sand, spice and \"worms\"")));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        bookExporter.export(BookExporter.CSV, out);
+
+        assertEquals("id,title,author_name,description\n1,dune,john,\"sand, spice and \"\"worms\"\"\"\n",
+                out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void export_DetachesEachFullBatch() throws Exception {
+        int rows = BookRepository.EXPORT_FETCH_SIZE * 2 + 1;
+        when(bookRepository.streamAllByOrderByIdAsc())
+                .thenReturn(LongStream.rangeClosed(1, rows).mapToObj(id -> book(id, "t" + id, "d")));
+
+        assertEquals(rows, bookExporter.export(BookExporter.CSV, new ByteArrayOutputStream()));
+        verify(entityManager, times(2)).clear();
+    }
+}
@@ -0,0 +1,155 @@
+package com.inspire.tasks.book;
+
+import com.inspire.tasks.book.author.AuthorCatalog;
+import com.inspire.tasks.book.dto.BookImportReport;
+import com.inspire.tasks.book.dto.BookImportRow;
+import com.inspire.tasks.book.dto.BookView;
+import com.inspire.tasks.book.search.BookSearchIndex;
+import com.inspire.tasks.book.search.TitleSuggester;
+import com.inspire.tasks.common.config.JacksonConfig;
+import com.inspire.tasks.user.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.validation.Validation;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BookImporterTest {
+
+    @Mock
+    BookRepository bookRepository;
+
+    @Mock
+    UserRepository userRepository;
+
+    @Mock
+    BookService bookService;
+
+    @Mock
+    BookSearchIndex bookSearchIndex;
+
+    @Mock
+    TitleSuggester titleSuggester;
+
+    @Mock
+    AuthorCatalog authorCatalog;
+
+    @Mock
+    JdbcTemplate jdbcTemplate;
+
+    @Mock
+    PlatformTransactionManager transactionManager;
+
+    @Mock
+    EntityManagerFactory entityManagerFactory;
+
+    BookImporter importer;
+
+    @BeforeEach
+    void setup() {
+        importer = new BookImporter(bookRepository, userRepository, bookService, bookSearchIndex, titleSuggester,
+                authorCatalog, jdbcTemplate, transactionManager, entityManagerFactory, new JacksonConfig().objectMapper(),
+                Validation.buildDefaultValidatorFactory().getValidator(), 2);
+    }
+
+    private ByteArrayInputStream body(String json) {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String row(String title, String username) {
+        return "{\"title\":\"" + title + "\",\"author\":\"Frank\",\"description\":\"Desc\",\"username\":\"" + username + "\"}";
+    }
+
+    private void evictableQueryCache() {
+        SessionFactory sessionFactory = mock(SessionFactory.class);
+        when(entityManagerFactory.unwrap(SessionFactory.class)).thenReturn(sessionFactory);
+        when(sessionFactory.getCache()).thenReturn(mock(Cache.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void importBooks_JsonArray_InsertsInBatchesAndReportsEachRow() throws Exception {
+        evictableQueryCache();
+        when(bookRepository.findExistingTitles(anyCollection())).thenReturn(List.of("emma"));
+        when(userRepository.findIdsByUsernameIn(anyCollection()))
+                .thenReturn(List.<Object[]>of(new Object[]{"john", 7L}));
+        when(bookRepository.findViewsByTitleIn(anyCollection())).thenAnswer(inv -> ((Collection<String>) inv.getArgument(0))
+                .stream().map(title -> new BookView((long) title.length(), title, "frank", "desc", 0)).toList());
+
+        String json = "[" + row("Dune", "john") + "," + row("Emma", "john") + "," + row("Dune", "john") + ","
+                + row("Ubik", "ghost") + "," + "{\"title\":\"x\"}" + "," + row("Solaris", "john") + "]";
+
+        BookImportReport report = importer.importBooks(body(json));
+
+        assertEquals(2, report.created());
+        assertEquals(4, report.rejected());
+        assertEquals(List.of(BookImporter.CREATED, BookImporter.DUPLICATE, BookImporter.DUPLICATE,
+                        BookImporter.UNKNOWN_USER, BookImporter.INVALID, BookImporter.CREATED),
+                report.rows().stream().map(BookImportRow::status).toList());
+        assertEquals(4L, report.rows().get(0).id());
+
+        ArgumentCaptor<List<BookImporter.PendingBook>> batch = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate, times(2)).batchUpdate(eq(BookImporter.INSERT_SQL), batch.capture(), anyInt(), any());
+        assertEquals("dune", batch.getAllValues().get(0).get(0).title());
+        verify(bookSearchIndex, times(2)).index(any());
+        verify(authorCatalog).link(Map.of(4L, "frank"));
+        verify(authorCatalog).link(Map.of(7L, "frank"));
+        verify(bookService).booksChanged();
+        verify(userRepository, times(2)).findIdsByUsernameIn(anyCollection());
+    }
+
+    @Test
+    void importBooks_Ndjson_ParsesConcatenatedObjects() throws Exception {
+        evictableQueryCache();
+        when(userRepository.findIdsByUsernameIn(anyCollection()))
+                .thenReturn(List.<Object[]>of(new Object[]{"john", 7L}));
+        when(bookRepository.findViewsByTitleIn(anyCollection()))
+                .thenReturn(List.of(new BookView(1L, "dune", "frank", "desc", 0)));
+
+        BookImportReport report = importer.importBooks(body(row("Dune", "john") + "\n"));
+
+        assertEquals(1, report.created());
+    }
+
+    @Test
+    void importBooks_BatchFails_ReportsRowsAsFailed() throws Exception {
+        when(userRepository.findIdsByUsernameIn(anyCollection()))
+                .thenReturn(List.<Object[]>of(new Object[]{"john", 7L}));
+        when(jdbcTemplate.batchUpdate(anyString(), anyList(), anyInt(), any()))
+                .thenThrow(new DuplicateKeyException("duplicate title"));
+
+        BookImportReport report = importer.importBooks(body(row("Dune", "john")));
+
+        assertEquals(0, report.created());
+        assertEquals(BookImporter.FAILED, report.rows().get(0).status());
+        verifyNoInteractions(bookSearchIndex, bookService);
+    }
+
+    @Test
+    void importBooks_MalformedJson_StopsAndKeepsEarlierRows() throws Exception {
+        BookImportReport report = importer.importBooks(body("[" + row("Dune", "") + ", {\"title\": ]"));
+
+        assertEquals(2, report.rows().size());
+        assertEquals(BookImporter.INVALID, report.rows().get(1).status());
+        verifyNoInteractions(jdbcTemplate);
+    }
+}
@@ -0,0 +1,188 @@
+package com.inspire.tasks.book;
+
+import com.inspire.tasks.book.author.AuthorCatalog;
+import com.inspire.tasks.book.dto.BookView;
+import com.inspire.tasks.book.search.BookSearchIndex;
+import com.inspire.tasks.book.search.TitleSuggester;
+import com.inspire.tasks.common.exception.BadRequestException;
+import com.inspire.tasks.common.exception.ConflictException;
+import com.inspire.tasks.common.exception.UnauthorizedException;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import org.hibernate.exception.ConstraintViolationException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BookPatcherTest {
+
+    @Mock
+    BookRepository bookRepository;
+
+    @Mock
+    BookSearchIndex bookSearchIndex;
+
+    @Mock
+    TitleSuggester titleSuggester;
+
+    @Mock
+    BookSecurity bookSecurity;
+
+    @Mock
+    AuthorCatalog authorCatalog;
+
+    @Mock
+    BookCatalogVersion catalogVersion;
+
+    @Mock
+    EntityManager entityManager;
+
+    @Mock
+    PlatformTransactionManager transactionManager;
+
+    @Mock
+    Query query;
+
+    BookPatcher patcher;
+
+    @BeforeEach
+    void setup() {
+        patcher = new BookPatcher(bookRepository, bookSearchIndex, titleSuggester, bookSecurity, authorCatalog,
+                catalogVersion, entityManager, transactionManager);
+        // admin unless a test says otherwise (a mocked Long would default to 0)
+        lenient().when(bookSecurity.ownerRestriction()).thenReturn(null);
+    }
+
+    private void stubUpdate(int rows) {
+        when(entityManager.createQuery(anyString())).thenReturn(query);
+        when(query.setParameter(anyString(), any())).thenReturn(query);
+        when(query.executeUpdate()).thenReturn(rows);
+    }
+
+    @Test
+    void patch_TitleWithVersion_UpdatesOnlyTitleAndReindexes() {
+        stubUpdate(1);
+        when(bookRepository.findViewsByIdIn(List.of(1L)))
+                .thenReturn(List.of(new BookView(1L, "dune messiah", "frank herbert", "sequel", 4)));
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("title", "dune messiah");
+        payload.put("version", 3);
+
+        patcher.patch(1L, payload);
+
+        verify(entityManager).createQuery(
+                "UPDATE Book b SET b.title = :title, b.version = b.version + 1 WHERE b.id = :id AND b.version = :version");
+        verify(query).setParameter("version", 3L);
+        verifyNoInteractions(authorCatalog);
+        ArgumentCaptor<Book> indexed = ArgumentCaptor.forClass(Book.class);
+        verify(bookSearchIndex).index(indexed.capture());
+        assertEquals(1L, indexed.getValue().getId());
+        assertEquals("frank herbert", indexed.getValue().getAuthorName());
+        verify(titleSuggester).index(indexed.getValue());
+        verify(catalogVersion).bump();
+    }
+
+    @Test
+    void patch_AllFields_ReindexesWithoutReading() {
+        stubUpdate(1);
+
+        patcher.patch(1L, Map.of("title", "dune", "authorName", "frank herbert", "description", "desert planet"));
+
+        verify(bookRepository, never()).findViewsByIdIn(any());
+        verify(bookSearchIndex).index(any(Book.class));
+        verify(authorCatalog).relink(Map.of(1L, "frank herbert"));
+    }
+
+    @Test
+    void patch_MixedCase_StoresLowercaseLikeCreate() {
+        stubUpdate(1);
+
+        patcher.patch(1L, Map.of("title", "Dune", "authorName", "Frank Herbert", "description", "Desert Planet"));
+
+        verify(query).setParameter("title", "dune");
+        verify(query).setParameter("authorName", "frank herbert");
+        verify(query).setParameter("description", "desert planet");
+        verify(authorCatalog).relink(Map.of(1L, "frank herbert"));
+        ArgumentCaptor<Book> indexed = ArgumentCaptor.forClass(Book.class);
+        verify(bookSearchIndex).index(indexed.capture());
+        assertEquals("dune", indexed.getValue().getTitle());
+    }
+
+    @Test
+    void patch_AsAuthor_RestrictsUpdateToOwnBook() {
+        stubUpdate(1);
+        when(bookSecurity.ownerRestriction()).thenReturn(7L);
+
+        patcher.patch(1L, Map.of("title", "dune", "authorName", "frank herbert", "description", "desert planet"));
+
+        verify(entityManager).createQuery(argThat((String jpql) -> jpql.endsWith("WHERE b.id = :id AND b.userId.id = :ownerId")));
+        verify(query).setParameter("ownerId", 7L);
+    }
+
+    @Test
+    void patch_StaleVersion_ThrowsConflict() {
+        stubUpdate(0);
+
+        assertThrows(ConflictException.class, () -> patcher.patch(1L, Map.of("title", "dune", "version", 2)));
+        verify(bookSecurity).checkEditable(1L, null);
+        verifyNoInteractions(bookSearchIndex, titleSuggester, catalogVersion);
+    }
+
+    @Test
+    void patch_MissingOrForeignBook_PropagatesSecurityError() {
+        stubUpdate(0);
+        when(bookSecurity.ownerRestriction()).thenReturn(7L);
+        doThrow(new UnauthorizedException("Only the owner can modify this book."))
+                .when(bookSecurity).checkEditable(1L, 7L);
+
+        assertThrows(UnauthorizedException.class, () -> patcher.patch(1L, Map.of("title", "dune")));
+        verifyNoInteractions(bookSearchIndex, titleSuggester);
+    }
+
+    @Test
+    void patch_DuplicateTitle_ThrowsBadRequest() {
+        when(entityManager.createQuery(anyString())).thenReturn(query);
+        when(query.setParameter(anyString(), any())).thenReturn(query);
+        when(query.executeUpdate()).thenThrow(new ConstraintViolationException("duplicate", new SQLException(), "title"));
+
+        BadRequestException ex = assertThrows(BadRequestException.class, () -> patcher.patch(1L, Map.of("title", "dune")));
+        assertEquals("Error: A book with this title already exists.", ex.getMessage());
+    }
+
+    @Test
+    void patch_AuthorRejectedByLeftoverIndex_DoesNotBlameTheTitle() {
+        when(entityManager.createQuery(anyString())).thenReturn(query);
+        when(query.setParameter(anyString(), any())).thenReturn(query);
+        when(query.executeUpdate()).thenThrow(new ConstraintViolationException("duplicate", new SQLException(), "author_name"));
+
+        BadRequestException ex = assertThrows(BadRequestException.class, () -> patcher.patch(1L, Map.of("authorName", "frank herbert")));
+        assertEquals("Error: The book conflicts with an existing book.", ex.getMessage());
+    }
+
+    @Test
+    void patch_UnknownField_ThrowsBadRequest() {
+        assertThrows(BadRequestException.class, () -> patcher.patch(1L, Map.of("userId", 5)));
+        verifyNoInteractions(entityManager);
+    }
+
+    @Test
+    void patch_OnlyVersion_ThrowsBadRequest() {
+        assertThrows(BadRequestException.class, () -> patcher.patch(1L, Map.of("version", 2)));
+        verifyNoInteractions(entityManager);
+    }
+}
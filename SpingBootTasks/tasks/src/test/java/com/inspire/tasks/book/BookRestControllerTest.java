@@ -4,9 +4,19 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.inspire.tasks.auth.TestSecurityConfig;
 
 import com.inspire.tasks.auth.jwt.AuthTokenFilter;
+import com.inspire.tasks.book.author.AuthorCatalog;
+import com.inspire.tasks.book.dto.AuthorView;
+import com.inspire.tasks.book.dto.BookBulkResult;
+import com.inspire.tasks.book.dto.BookImportReport;
+import com.inspire.tasks.book.dto.BookImportRow;
+import com.inspire.tasks.book.dto.BookPage;
 import com.inspire.tasks.book.dto.BookRequest;
 import com.inspire.tasks.book.dto.BookResponse;
+import com.inspire.tasks.book.dto.BookView;
+import com.inspire.tasks.book.dto.TitleSuggestion;
 import com.inspire.tasks.common.MessageResponse;
+import com.inspire.tasks.common.exception.ConflictException;
+import com.inspire.tasks.common.exception.GatewayTimeoutException;
 import com.inspire.tasks.user.User;
 import com.inspire.tasks.user.UserService;
 import org.junit.jupiter.api.BeforeEach;
@@ -21,13 +31,23 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import reactor.core.publisher.Mono;
 
 
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static org.hamcrest.Matchers.hasSize;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -38,7 +58,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
                 classes = AuthTokenFilter.class
         )
 )
-@Import(TestSecurityConfig.class)
+@Import({TestSecurityConfig.class, BookCatalogVersion.class, BookSnapshotCache.class})
 class BookRestControllerTest {
 
     @Autowired
@@ -53,43 +73,215 @@ class BookRestControllerTest {
     @MockitoBean
     UserService userService;
 
+    @MockitoBean
+    BookExporter bookExporter;
+
+    @MockitoBean
+    BookImporter bookImporter;
+
+    @MockitoBean
+    BookBulkOperations bookBulkOperations;
+
+    @MockitoBean
+    BookPatcher bookPatcher;
+
+    @MockitoBean
+    AuthorCatalog authorCatalog;
+
+    @MockitoBean
+    CatalogVersionRepository catalogVersionRepository;
+
+    @Autowired
+    BookCatalogVersion catalogVersion;
+
+    // outlives the per-test mock reset, so the version the context holds on to only moves forward
+    static final AtomicLong sharedVersion = new AtomicLong();
+
 
     private User user;
 
     @BeforeEach
     void setup() {
         user = new User("John Doe", "JDoe@email.com", "encoded-pass");
+        when(catalogVersionRepository.findEpochAndVersion(BookCatalogVersion.NAME))
+                .thenAnswer(invocation -> List.<Object[]>of(new Object[]{1L, sharedVersion.get()}));
+        when(catalogVersionRepository.increment(BookCatalogVersion.NAME)).thenAnswer(invocation -> {
+            sharedVersion.incrementAndGet();
+            return 1;
+        });
+        // a write drops the snapshots earlier tests left behind
+        catalogVersion.bump();
     }
 
     @WithMockUser(roles = "USER")
     @Test
     void getAllBooks_ReturnsList() throws Exception {
-        Book b1 = new Book("Book 1", "John", "Test book", user);
-        b1.setId(1L);
-        Book b2 = new Book("Book 2", "Mary", "Test book", user);
-        b2.setId(2L);
+        BookView b1 = new BookView(1L, "Book 1", "John", "Test book", 0);
+        BookView b2 = new BookView(2L, "Book 2", "Mary", "Test book", 0);
 
 //        String requestBody = objectMapper.writeValueAsString(List.of(b1, b2));
 
-        when(bookService.findAll()).thenReturn(List.of(b1, b2));
+        when(bookService.findPage(null, null, "id", false)).thenReturn(new BookPage(List.of(b1, b2), "next", null));
 
         mockMvc.perform(get("/api/lib/books"))
 //                        .content(requestBody)
 //                        .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$", hasSize(2)))
-                .andExpect(jsonPath("$[0].title").value("Book 1"))
-                .andExpect(jsonPath("$[0].authorName").value("John"))
-                .andExpect(jsonPath("$[1].title").value("Book 2"))
-                .andExpect(jsonPath("$[1].authorName").value("Mary"));
+                .andExpect(jsonPath("$.items", hasSize(2)))
+                .andExpect(jsonPath("$.items[0].title").value("Book 1"))
+                .andExpect(jsonPath("$.items[0].authorName").value("John"))
+                .andExpect(jsonPath("$.items[1].title").value("Book 2"))
+                .andExpect(jsonPath("$.items[1].authorName").value("Mary"))
+                .andExpect(jsonPath("$.nextCursor").value("next"))
+                .andExpect(jsonPath("$.total").doesNotExist())
+                .andExpect(header().string("ETag", catalogVersion.etag()))
+                .andExpect(header().string("Cache-Control", "no-cache, private"));
+
+    }
+
+    @WithMockUser(roles = "USER")
+    @Test
+    void getAllBooks_CurrentETag_ReturnsNotModifiedWithoutQuerying() throws Exception {
+        mockMvc.perform(get("/api/lib/books").header("If-None-Match", catalogVersion.etag()))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", catalogVersion.etag()))
+                .andExpect(content().string(""));
+
+        verifyNoInteractions(bookService);
+    }
+
+    @WithMockUser(roles = "USER")
+    @Test
+    void getAllBooks_Unchanged_SecondReadServedFromSnapshot() throws Exception {
+        when(bookService.findPage(null, 5, "id", false)).thenReturn(new BookPage(List.of(), null, null));
+
+        mockMvc.perform(get("/api/lib/books").param("size", "5")).andExpect(status().isOk());
+        mockMvc.perform(get("/api/lib/books").param("size", "5"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.items", hasSize(0)));
+        verify(bookService, times(1)).findPage(null, 5, "id", false);
+
+        catalogVersion.bump();
+        mockMvc.perform(get("/api/lib/books").param("size", "5")).andExpect(status().isOk());
+        verify(bookService, times(2)).findPage(null, 5, "id", false);
+    }
+
+    @WithMockUser(roles = "USER")
+    @Test
+    void getAllBooks_StaleETag_ReturnsBooks() throws Exception {
+        when(bookService.findPage(null, null, "id", false)).thenReturn(new BookPage(List.of(), null, null));
+
+        mockMvc.perform(get("/api/lib/books").header("If-None-Match", "\"stale\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", catalogVersion.etag()));
+    }
+
+    @WithMockUser(roles = "USER")
+    @Test
+    void searchBooks_ReturnsRankedList() throws Exception {
+        BookView b1 = new BookView(3L, "dune messiah", "frank herbert", "sequel", 0);
+
+        when(bookService.search("dune", 5)).thenReturn(List.of(b1));
+
+        mockMvc.perform(get("/api/lib/books/search").param("q", "dune").param("limit", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].title").value("dune messiah"));
+    }
+
+    @WithMockUser(roles = "USER")
+    @Test
+    void suggestTitles_ReturnsSuggestions() throws Exception {
+        when(bookService.suggestTitles("dun", null)).thenReturn(List.of(new TitleSuggestion(1L, "dune", 1.0)));
+
+        mockMvc.perform(get("/api/lib/books/suggest").param("q", "dun"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].title").value("dune"))
+                .andExpect(jsonPath("$[0].score").value(1.0));
+    }
+
+    @WithMockUser(roles = "USER")
+    @Test
+    void exportBooks_Csv_StreamsBody() throws Exception {
+        when(bookExporter.export(eq("csv"), any())).thenAnswer(invocation -> {
+            OutputStream out = invocation.getArgument(1);
+            out.write("id,title,author_name,description\n".getBytes(StandardCharsets.UTF_8));
+            return 0L;
+        });
+
+        MvcResult result = mockMvc.perform(get("/api/lib/books/export").param("format", "csv"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Disposition", "attachment; filename=books.csv"))
+                .andExpect(content().contentType("text/csv"))
+                .andExpect(content().string("id,title,author_name,description\n"));
+    }
+
+    @WithMockUser(roles = "ADMIN")
+    @Test
+    void bulkDeleteBooks_ReturnsAffectedCount() throws Exception {
+        when(bookBulkOperations.delete(any())).thenReturn(new BookBulkResult("delete", 3));
 
+        mockMvc.perform(post("/api/lib/books/bulk-delete")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"author\":\"herbert\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.operation").value("delete"))
+                .andExpect(jsonPath("$.affected").value(3));
+    }
+
+    @WithMockUser(roles = "AUTHOR")
+    @Test
+    void bulkUpdateBooks_ReturnsAffectedCount() throws Exception {
+        when(bookBulkOperations.update(any())).thenReturn(new BookBulkResult("update", 2));
+
+        mockMvc.perform(post("/api/lib/books/bulk-update")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"filter\":{\"ids\":[1,2]},\"description\":\"out of print\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.affected").value(2));
+    }
+
+    @WithMockUser(roles = "AUTHOR")
+    @Test
+    void importBooks_ReturnsReport() throws Exception {
+        when(bookImporter.importBooks(any())).thenReturn(new BookImportReport(1, 0,
+                List.of(new BookImportRow(1, "dune", BookImporter.CREATED, 5L, null))));
+
+        mockMvc.perform(post("/api/lib/books/import")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content("{\"title\":\"Dune\"}\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(1))
+                .andExpect(jsonPath("$.rows[0].id").value(5))
+                .andExpect(jsonPath("$.rows[0].error").doesNotExist());
+    }
+
+    @WithMockUser(roles = "USER")
+    @Test
+    void importBooks_AsUser_IsForbidden() throws Exception {
+        mockMvc.perform(post("/api/lib/books/import")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[]"))
+                .andExpect(status().isForbidden());
+    }
+
+    @WithMockUser(roles = "USER")
+    @Test
+    void exportBooks_UnknownFormat_ReturnsBadRequest() throws Exception {
+        mockMvc.perform(get("/api/lib/books/export").param("format", "xml"))
+                .andExpect(status().isBadRequest());
     }
 
     @WithMockUser
     @Test
     void findBooksByAuthor_ReturnsList() throws Exception {
-        Book b1 = new Book("Book 1", "John", "Test book", user);
-        Book b2 = new Book("Book 2", "John", "Test book", user);
+        BookView b1 = new BookView(1L, "Book 1", "John", "Test book", 0);
+        BookView b2 = new BookView(2L, "Book 2", "John", "Test book", 0);
 
         when(bookService.findAllByAuthorName("John")).thenReturn(List.of(b1, b2));
 
@@ -103,13 +295,32 @@ class BookRestControllerTest {
 
     }
 
+    @WithMockUser
+    @Test
+    void findBooksByAuthor_CurrentETag_ReturnsNotModified() throws Exception {
+        mockMvc.perform(get("/api/lib/books/author/John").header("If-None-Match", catalogVersion.etag()))
+                .andExpect(status().isNotModified());
+
+        verifyNoInteractions(bookService);
+    }
+
+    @WithMockUser
+    @Test
+    void findAuthors_ReturnsStoredCounts() throws Exception {
+        when(authorCatalog.findPage("asimov", 2))
+                .thenReturn(List.of(new AuthorView("frank herbert", 6), new AuthorView("jules verne", 1)));
+
+        mockMvc.perform(get("/api/lib/authors").param("after", "asimov").param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].name").value("frank herbert"))
+                .andExpect(jsonPath("$[0].bookCount").value(6));
+    }
+
     @WithMockUser
     @Test
     void findBooksByTitle_ReturnsBook() throws Exception {
-        Book book = new Book();
-        book.setId(1L);
-        book.setTitle("Book 1");
-        book.setAuthorName("John");
+        BookView book = new BookView(1L, "Book 1", "John", null, 0);
 
         // Mock the service
         when(bookService.findAllByTitle("Book 1")).thenReturn(book);
@@ -120,6 +331,15 @@ class BookRestControllerTest {
                 .andExpect(jsonPath("$.authorName").value("John"));
     }
 
+    @WithMockUser
+    @Test
+    void findBooksByTitle_CurrentETag_ReturnsNotModified() throws Exception {
+        mockMvc.perform(get("/api/lib/books/title/Book 1").header("If-None-Match", catalogVersion.etag()))
+                .andExpect(status().isNotModified());
+
+        verifyNoInteractions(bookService);
+    }
+
     @WithMockUser(roles = "AUTHOR")
     @Test
     void createBook_ReturnsSuccess() throws Exception {
@@ -144,15 +364,6 @@ class BookRestControllerTest {
     @Test
     void updateBook_Success() throws Exception {
         Long bookId = 1L;
-        Book existing = new Book("Old Title", "John", "Test book", user);
-        existing.setId(bookId);
-
-        when(bookService.findById(bookId)).thenReturn(existing);
-
-        when(bookService.save(any(Book.class)))
-                .thenAnswer(invocation -> ResponseEntity.ok(
-                        new MessageResponse(200, "Book updated successfully!")));
-
         Map<String, Object> patch = Map.of("title", "New Title");
 
         mockMvc.perform(patch("/api/lib/books/{id}", bookId)
@@ -160,15 +371,26 @@ class BookRestControllerTest {
                         .content(objectMapper.writeValueAsString(patch)))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.message").value("Book updated successfully!"));
+
+        verify(bookPatcher).patch(bookId, patch);
     }
 
     @WithMockUser(roles = "ADMIN")
     @Test
-    void deleteBook_ReturnsSuccess() throws Exception {
-        Book book = new Book("Book Title", "John", "Test Book", user);
-        book.setId(1L);
+    void updateBook_StaleVersion_ReturnsConflict() throws Exception {
+        doThrow(new ConflictException("Error: Book 1 was changed by someone else, reload it and retry."))
+                .when(bookPatcher).patch(eq(1L), any());
+
+        mockMvc.perform(patch("/api/lib/books/{id}", 1L)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"title\":\"New Title\",\"version\":3}"))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.code").value(409));
+    }
 
-        when(bookService.findById(1L)).thenReturn(book);
+    @WithMockUser(roles = "ADMIN")
+    @Test
+    void deleteBook_ReturnsSuccess() throws Exception {
         when(bookService.deleteById(1L))
                 .thenAnswer(invocation -> ResponseEntity.ok(
                         new MessageResponse(200, "Book has been deleted successfully!")));
@@ -184,11 +406,28 @@ class BookRestControllerTest {
         BookResponse response =
                 new BookResponse("Clean Code", "Robert C. Martin", "Agile craftsmanship");
 
-        when(bookService.findBookByNameOL("clean-code"))
-                .thenReturn(response);
+        when(bookService.findBookByNameOLReactive("clean-code"))
+                .thenReturn(Mono.just(response));
 
-        mockMvc.perform(get("/api/lib/open-library/clean-code"))
+        MvcResult result = mockMvc.perform(get("/api/lib/open-library/clean-code"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.title").value("Clean Code"));
     }
+
+    @WithMockUser
+    @Test
+    void getBookFromOpenLibrary_Timeout_ReturnsGatewayTimeout() throws Exception {
+        when(bookService.findBookByNameOLReactive("slow"))
+                .thenReturn(Mono.error(new GatewayTimeoutException("Error: Open Library didn't answer in time, try again later.")));
+
+        MvcResult result = mockMvc.perform(get("/api/lib/open-library/slow")).andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isGatewayTimeout())
+                .andExpect(jsonPath("$.message").value("Error: Open Library didn't answer in time, try again later."));
+    }
 }
@@ -1,16 +1,22 @@
 package com.inspire.tasks.book;
 
 
-import com.inspire.tasks.user.User;
+import com.inspire.tasks.common.exception.BadRequestException;
 import com.inspire.tasks.common.exception.UnauthorizedException;
+import com.inspire.tasks.user.UserDetailsImpl;
+import com.inspire.tasks.user.UserRepository;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.context.SecurityContextImpl;
+
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -19,66 +25,76 @@ import static org.mockito.Mockito.*;
 class BookSecurityTest {
 
     @Mock
-    private BookService bookService;
+    private BookRepository bookRepository;
+
+    @Mock
+    private UserRepository userRepository;
 
     @InjectMocks
     private BookSecurity bookSecurity;
 
-    @Test
-    void userCanEdit_AsOwner_ReturnsTrue() {
-        // Arrange
-        Long bookId = 1L;
-        String username = "author1";
-
-        User owner = new User();
-        owner.setUsername(username);
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
 
-        Book book = new Book();
-        book.setId(bookId);
-        book.setUserId(owner);
+    private void loginAs(Object principal, String role) {
+        SecurityContextHolder.setContext(new SecurityContextImpl(new UsernamePasswordAuthenticationToken(principal, null,
+                List.of(new SimpleGrantedAuthority(role)))));
+    }
 
-        when(bookService.findById(bookId)).thenReturn(book);
+    @Test
+    void ownerRestriction_AsAdmin_ReturnsNull() {
+        loginAs("root", "ROLE_ADMIN");
 
-        // Mock SecurityContext
-        SecurityContext context = mock(SecurityContext.class);
-        SecurityContextHolder.setContext(context);
-        when(context.getAuthentication())
-                .thenReturn(new UsernamePasswordAuthenticationToken(username, null));
+        assertNull(bookSecurity.ownerRestriction());
+        verifyNoInteractions(userRepository);
+    }
 
-        // Act
-        boolean result = bookSecurity.userCanEdit(bookId);
+    @Test
+    void ownerRestriction_JwtPrincipal_UsesItsIdWithoutQuerying() {
+        loginAs(new UserDetailsImpl(7L, "author1", "a@example.com", "pass",
+                List.of(new SimpleGrantedAuthority("ROLE_AUTHOR")), 0L), "ROLE_AUTHOR");
 
-        // Assert
-        assertTrue(result);
+        assertEquals(7L, bookSecurity.ownerRestriction());
+        verifyNoInteractions(userRepository);
     }
 
     @Test
-    void userCanEdit_AsNotOwner_ThrowsUnauthorizedException() {
-        // Arrange
-        Long bookId = 1L;
-        String username = "notAuthor";
+    void ownerRestriction_UsernamePrincipal_LooksUpId() {
+        loginAs("author1", "ROLE_AUTHOR");
+        when(userRepository.findIdsByUsernameIn(List.of("author1"))).thenReturn(List.<Object[]>of(new Object[]{"author1", 7L}));
 
-        User owner = new User();
-        owner.setUsername("author1");
+        assertEquals(7L, bookSecurity.ownerRestriction());
+    }
 
-        Book book = new Book();
-        book.setId(bookId);
-        book.setUserId(owner);
+    @Test
+    void checkEditable_MissingBook_ThrowsBadRequest() {
+        when(bookRepository.existsById(1L)).thenReturn(false);
 
-        when(bookService.findById(bookId)).thenReturn(book);
+        BadRequestException exception = assertThrows(BadRequestException.class, () -> bookSecurity.checkEditable(1L, 7L));
 
-        // Mock SecurityContext
-        SecurityContext context = mock(SecurityContext.class);
-        SecurityContextHolder.setContext(context);
-        when(context.getAuthentication())
-                .thenReturn(new UsernamePasswordAuthenticationToken(username, null));
+        assertEquals("Book id : 1 doesn't exists", exception.getMessage());
+    }
+
+    @Test
+    void checkEditable_AsNotOwner_ThrowsUnauthorizedException() {
+        when(bookRepository.existsById(1L)).thenReturn(true);
+        when(bookRepository.existsByIdAndUserId_Id(1L, 7L)).thenReturn(false);
 
-        // Act & Assert
         UnauthorizedException exception = assertThrows(
                 UnauthorizedException.class,
-                () -> bookSecurity.userCanEdit(bookId)
+                () -> bookSecurity.checkEditable(1L, 7L)
         );
 
         assertEquals("Only the owner can modify this book.", exception.getMessage());
     }
+
+    @Test
+    void checkEditable_AsOwner_Returns() {
+        when(bookRepository.existsById(1L)).thenReturn(true);
+        when(bookRepository.existsByIdAndUserId_Id(1L, 7L)).thenReturn(true);
+
+        assertDoesNotThrow(() -> bookSecurity.checkEditable(1L, 7L));
+    }
 }
@@ -1,9 +1,17 @@
 package com.inspire.tasks.book;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.inspire.tasks.book.client.OpenLibraryService;
+import com.inspire.tasks.book.author.AuthorCatalog;
+import com.inspire.tasks.book.client.OpenLibraryCache;
+import com.inspire.tasks.book.client.ReactiveOpenLibraryService;
+import com.inspire.tasks.book.dto.BookPage;
 import com.inspire.tasks.book.dto.BookResponse;
+import com.inspire.tasks.book.dto.BookView;
+import com.inspire.tasks.book.search.BookSearchIndex;
+import com.inspire.tasks.book.search.TitleSuggester;
 import com.inspire.tasks.common.exception.BadRequestException;
+import com.inspire.tasks.common.exception.GatewayTimeoutException;
+import com.inspire.tasks.common.exception.UnauthorizedException;
 import com.inspire.tasks.book.dto.BookRequest;
 import com.inspire.tasks.common.MessageResponse;
 import com.inspire.tasks.user.User;
@@ -14,10 +22,16 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import reactor.core.publisher.Mono;
 
-import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -33,7 +47,28 @@ class BookServiceTest {
     UserService userService;
 
     @Mock
-    OpenLibraryService openLibraryService;
+    ReactiveOpenLibraryService reactiveOpenLibraryService;
+
+    @Mock
+    OpenLibraryCache openLibraryCache;
+
+    @Mock
+    BookSearchIndex bookSearchIndex;
+
+    @Mock
+    TitleSuggester titleSuggester;
+
+    @Mock
+    BookSecurity bookSecurity;
+
+    @Mock
+    AuthorCatalog authorCatalog;
+
+    @Mock
+    BookCatalogVersion catalogVersion;
+
+    @Mock
+    PlatformTransactionManager transactionManager;
 
     @InjectMocks
     BookService bookService;
@@ -53,9 +88,12 @@ class BookServiceTest {
         User user = new User();
         user.setUsername("john doe");
 
-        when(bookRepository.existsByTitle("My Book")).thenReturn(false);
-        when(userService.findByUsername("john doe")).thenReturn(user);
-        when(bookRepository.save(any(Book.class))).thenAnswer(inv -> inv.getArgument(0));
+        when(userService.referenceByUsername("john doe")).thenReturn(user);
+        when(bookRepository.save(any(Book.class))).thenAnswer(inv -> {
+            Book saved = inv.getArgument(0);
+            saved.setId(5L);
+            return saved;
+        });
 
         ResponseEntity<?> response = bookService.createBook(request);
 
@@ -64,14 +102,22 @@ class BookServiceTest {
 
         MessageResponse body = (MessageResponse) response.getBody();
         assertEquals("Book created successfully!", body.getMessage());
+        verify(bookRepository, never()).existsByTitle(any());
+        verify(userService, never()).findByUsername(any());
+        verify(authorCatalog).link(Map.of(5L, "john"));
+        verify(catalogVersion).bump();
     }
 
     @Test
     void createBook_TitleExists_ThrowsException() {
         BookRequest request = new BookRequest();
         request.setTitle("My Book");
+        request.setAuthor("John");
+        request.setDescription("Desc");
+        request.setUsername("john doe");
 
-        when(bookRepository.existsByTitle("My Book")).thenReturn(true);
+        when(bookRepository.save(any(Book.class))).thenThrow(new DataIntegrityViolationException("duplicate title"));
+        when(bookRepository.existsByTitle("my book")).thenReturn(true);
 
         BadRequestException ex = assertThrows(
                 BadRequestException.class,
@@ -79,87 +125,205 @@ class BookServiceTest {
         );
 
         assertEquals("Error: A book with this title already exists.", ex.getMessage());
+        verifyNoInteractions(bookSearchIndex, titleSuggester, catalogVersion);
     }
 
     @Test
-    void createBook_UserNotFound_ThrowsException() {
+    void createBook_OtherConstraint_DoesNotBlameTheUser() {
         BookRequest request = new BookRequest();
         request.setTitle("My Book");
         request.setAuthor("John");
         request.setDescription("Desc");
-        request.setUsername("unknown");
+        request.setUsername("john doe");
 
-        when(bookRepository.existsByTitle("My Book")).thenReturn(false);
-        when(userService.findByUsername("unknown"))
-                .thenThrow(new BadRequestException("Username: unknown doesn't exists"));
+        when(bookRepository.save(any(Book.class))).thenThrow(new DataIntegrityViolationException("duplicate author_name"));
+        when(bookRepository.existsByTitle("my book")).thenReturn(false);
+        when(userService.existsByUsername("john doe")).thenReturn(true);
 
         BadRequestException ex = assertThrows(
                 BadRequestException.class,
                 () -> bookService.createBook(request)
         );
 
-        assertTrue(ex.getMessage().contains("unknown"));
+        assertEquals("Error: The book conflicts with an existing book.", ex.getMessage());
     }
 
     @Test
-    void findById_Success() {
-        Book book = new Book();
-        when(bookRepository.findById(1L)).thenReturn(Optional.of(book));
+    void createBook_UserDeletedSinceCached_ThrowsException() {
+        BookRequest request = new BookRequest();
+        request.setTitle("My Book");
+        request.setAuthor("John");
+        request.setDescription("Desc");
+        request.setUsername("john doe");
 
-        Book result = bookService.findById(1L);
+        when(bookRepository.save(any(Book.class))).thenThrow(new DataIntegrityViolationException("user_id"));
+        when(userService.existsByUsername("john doe")).thenReturn(false);
 
-        assertNotNull(result);
+        BadRequestException ex = assertThrows(
+                BadRequestException.class,
+                () -> bookService.createBook(request)
+        );
+
+        assertEquals("Username: john doe doesn't exists", ex.getMessage());
     }
 
+
     @Test
-    void findById_NotFound_ThrowsException() {
-        when(bookRepository.findById(1L)).thenReturn(Optional.empty());
+    void createBook_UserNotFound_ThrowsException() {
+        BookRequest request = new BookRequest();
+        request.setTitle("My Book");
+        request.setAuthor("John");
+        request.setDescription("Desc");
+        request.setUsername("unknown");
+
+        when(userService.referenceByUsername("unknown"))
+                .thenThrow(new BadRequestException("Username: unknown doesn't exists"));
 
         BadRequestException ex = assertThrows(
                 BadRequestException.class,
-                () -> bookService.findById(1L)
+                () -> bookService.createBook(request)
         );
 
-        assertEquals("Book id : 1 doesn't exists", ex.getMessage());
+        assertTrue(ex.getMessage().contains("unknown"));
     }
 
     @Test
-    void save_ReturnsSuccessMessage() {
-        Book book = new Book();
-        when(bookRepository.save(book)).thenReturn(book);
+    void deleteById_Success() {
+        when(bookSecurity.ownerRestriction()).thenReturn(null);
+        when(bookRepository.deleteBook(1L)).thenReturn(1);
 
-        ResponseEntity<?> response = bookService.save(book);
+        ResponseEntity<?> response = bookService.deleteById(1L);
 
         assertEquals(200, response.getStatusCode().value());
-        assertInstanceOf(MessageResponse.class, response.getBody());
+        verify(authorCatalog).unlink(List.of(1L));
+        verify(bookSearchIndex).remove(1L);
+        verify(titleSuggester).remove(1L);
+        verify(catalogVersion).bump();
     }
 
     @Test
-    void deleteById_Success() {
-        doNothing().when(bookRepository).deleteById(1L);
+    void deleteById_AsAuthor_DeletesOnlyOwnBook() {
+        when(bookSecurity.ownerRestriction()).thenReturn(7L);
+        when(bookRepository.deleteOwnedBook(1L, 7L)).thenReturn(1);
 
-        ResponseEntity<?> response = bookService.deleteById(1L);
+        assertEquals(200, bookService.deleteById(1L).getStatusCode().value());
+        verify(bookRepository, never()).deleteBook(any());
+        verify(bookRepository, never()).findById(any());
+    }
 
-        assertEquals(200, response.getStatusCode().value());
+    @Test
+    void deleteById_NotOwner_ThrowsAndKeepsIndex() {
+        SimpleTransactionStatus status = new SimpleTransactionStatus();
+        when(transactionManager.getTransaction(any())).thenReturn(status);
+        when(bookSecurity.ownerRestriction()).thenReturn(7L);
+        when(bookRepository.deleteOwnedBook(1L, 7L)).thenReturn(0);
+        doThrow(new UnauthorizedException("Only the owner can modify this book."))
+                .when(bookSecurity).checkEditable(1L, 7L);
+
+        assertThrows(UnauthorizedException.class, () -> bookService.deleteById(1L));
+        assertTrue(status.isRollbackOnly());
+        verifyNoInteractions(bookSearchIndex, titleSuggester, catalogVersion);
+    }
+
+    private BookView view(long id, String title) {
+        return new BookView(id, title, "john", "desc", 0);
+    }
+
+    private void pageSizes() {
+        ReflectionTestUtils.setField(bookService, "defaultPageSize", 2);
+        ReflectionTestUtils.setField(bookService, "maxPageSize", 5);
+        ReflectionTestUtils.setField(bookService, "countTtlMs", 60_000L);
+    }
+
+    @Test
+    void findPage_MoreRows_ReturnsCursorForNextPage() {
+        pageSizes();
+        when(bookRepository.findPageAfterId(0L, Limit.of(3)))
+                .thenReturn(List.of(view(1, "a"), view(2, "b"), view(3, "c")));
+
+        BookPage page = bookService.findPage(null, null, "id", false);
+
+        assertEquals(2, page.items().size());
+        assertNull(page.total());
+        assertEquals(new BookCursor("id", 2L, null), BookCursor.decode(page.nextCursor()));
+
+        when(bookRepository.findPageAfterId(2L, Limit.of(3)))
+                .thenReturn(List.of(view(3, "c")));
+
+        BookPage last = bookService.findPage(page.nextCursor(), null, "id", false);
+
+        assertEquals(1, last.items().size());
+        assertNull(last.nextCursor());
+    }
+
+    @Test
+    void findPage_TitleCursor_SeeksPastTitleAndId() {
+        pageSizes();
+        String cursor = new BookCursor("title", 7L, "dune").encode();
+        when(bookRepository.findPageAfterTitle("dune", 7L, Limit.of(6))).thenReturn(List.of(view(2, "emma")));
+
+        BookPage page = bookService.findPage(cursor, 50, "id", false);
+
+        assertEquals("emma", page.items().get(0).title());
+        verify(bookRepository, never()).findPageAfterId(any(), any());
     }
 
     @Test
-    void findAll_ReturnsList() {
-        Book b1 = new Book();
-        Book b2 = new Book();
+    void findPage_InvalidCursor_ThrowsBadRequest() {
+        pageSizes();
 
-        when(bookRepository.findAll()).thenReturn(Arrays.asList(b1, b2));
+        assertThrows(BadRequestException.class, () -> bookService.findPage("not-a-cursor", null, "id", false));
+    }
+
+    @Test
+    void findPage_WithTotal_CountsOnceUntilBooksChange() {
+        pageSizes();
+        when(bookRepository.findPageAfterId(eq(0L), any())).thenReturn(List.of());
+        when(bookRepository.count()).thenReturn(42L);
+
+        assertEquals(42L, bookService.findPage(null, null, "id", true).total());
+        assertEquals(42L, bookService.findPage(null, null, "id", true).total());
+        verify(bookRepository, times(1)).count();
+
+        when(bookSecurity.ownerRestriction()).thenReturn(null);
+        when(bookRepository.deleteBook(1L)).thenReturn(1);
+        bookService.deleteById(1L);
+        bookService.findPage(null, null, "id", true);
+        verify(bookRepository, times(2)).count();
+    }
+
+    @Test
+    void search_ReturnsBooksInIndexOrder() {
+        ReflectionTestUtils.setField(bookService, "maxSearchResults", 50);
+        when(bookSearchIndex.search("dune", 10)).thenReturn(List.of(3L, 1L));
+        when(bookRepository.findViewsByIdIn(List.of(3L, 1L))).thenReturn(List.of(view(1, "dune"), view(3, "dune messiah")));
+
+        List<BookView> result = bookService.search("dune", null);
+
+        assertEquals(List.of(3L, 1L), result.stream().map(BookView::id).toList());
+    }
+
+    @Test
+    void search_BlankQuery_ThrowsBadRequest() {
+        assertThrows(BadRequestException.class, () -> bookService.search(" ", null));
+        verifyNoInteractions(bookSearchIndex);
+    }
+
+    @Test
+    void suggestTitles_CapsLimit() {
+        ReflectionTestUtils.setField(bookService, "maxSuggestions", 10);
+        when(titleSuggester.suggest("dun", 10)).thenReturn(List.of());
 
-        var result = bookService.findAll();
+        bookService.suggestTitles("dun", 500);
 
-        assertEquals(2, result.size());
+        verify(titleSuggester).suggest("dun", 10);
     }
 
     @Test
     void findAllByAuthorName_ReturnsList() {
-        Book b1 = new Book();
+        BookView b1 = view(1, "dune");
 
-        when(bookRepository.findAllByAuthorName("john"))
+        when(bookRepository.findViewsByAuthorName("john"))
                 .thenReturn(List.of(b1));
 
         var result = bookService.findAllByAuthorName("john");
@@ -169,18 +333,18 @@ class BookServiceTest {
 
     @Test
     void findAllByTitle_Success() {
-        Book book = new Book();
-        when(bookRepository.findByTitle("mybook"))
+        BookView book = view(1, "mybook");
+        when(bookRepository.findViewByTitle("mybook"))
                 .thenReturn(Optional.of(book));
 
-        Book result = bookService.findAllByTitle("mybook");
+        BookView result = bookService.findAllByTitle("mybook");
 
         assertNotNull(result);
     }
 
     @Test
     void findAllByTitle_NotFound_ThrowsException() {
-        when(bookRepository.findByTitle("Test Book"))
+        when(bookRepository.findViewByTitle("Test Book"))
                 .thenReturn(Optional.empty());
 
         BadRequestException ex = assertThrows(
@@ -193,6 +357,7 @@ class BookServiceTest {
 
     @Test
     void findBookByName_OpenLibrary_Success() {
+        ReflectionTestUtils.setField(bookService, "openLibraryTimeoutMs", 1000L);
         String bookName = "clean code";
         String searchResponse = """
         {
@@ -217,16 +382,86 @@ class BookServiceTest {
         }
         """;
 
-        when(openLibraryService.findBookByName(bookName))
-                .thenReturn(searchResponse);
+        when(reactiveOpenLibraryService.findBookByName(bookName))
+                .thenReturn(Mono.just(searchResponse));
 
-        when(openLibraryService.getWorkById("OL123W"))
-                .thenReturn(workResponse);
+        when(reactiveOpenLibraryService.getWorkById("OL123W"))
+                .thenReturn(Mono.just(workResponse));
 
-        BookResponse response = bookService.findBookByNameOL(bookName);
+        BookResponse response = bookService.findBookByNameOLReactive(bookName).block();
 
         assertEquals("Clean Code", response.title());
         assertEquals("Robert C. Martin", response.authorName());
         assertEquals("A handbook of agile software craftsmanship.", response.description());
+        verify(openLibraryCache).put(bookName, "OL123W", workResponse, response);
+    }
+
+    @Test
+    void findBookByName_OpenLibrary_KnownWorkSkipsSecondCall() {
+        ReflectionTestUtils.setField(bookService, "openLibraryTimeoutMs", 1000L);
+        when(reactiveOpenLibraryService.findBookByName("clean code"))
+                .thenReturn(Mono.just("{\"docs\":[{\"key\":\"/works/OL123W\",\"author_name\":[\"Robert C. Martin\"]}]}"));
+        when(openLibraryCache.getWork("OL123W")).thenReturn("{\"title\":\"Clean Code\",\"description\":\"A handbook\"}");
+
+        BookResponse response = bookService.findBookByNameOLReactive("clean code").block();
+
+        assertEquals("A handbook", response.description());
+        verify(reactiveOpenLibraryService, never()).getWorkById(any());
+        verify(openLibraryCache).put("clean code", "OL123W", null, response);
+    }
+
+    @Test
+    void findBookByNameReactive_ComposesSearchAndWork() {
+        ReflectionTestUtils.setField(bookService, "openLibraryTimeoutMs", 1000L);
+        when(reactiveOpenLibraryService.findBookByName("clean code"))
+                .thenReturn(Mono.just("{\"docs\":[{\"key\":\"/works/OL123W\",\"author_name\":[\"Robert C. Martin\"]}]}"));
+        when(reactiveOpenLibraryService.getWorkById("OL123W"))
+                .thenReturn(Mono.just("{\"title\":\"Clean Code\",\"description\":{\"value\":\"A handbook\"}}"));
+
+        BookResponse response = bookService.findBookByNameOLReactive("clean code").block();
+
+        assertEquals(new BookResponse("Clean Code", "Robert C. Martin", "A handbook"), response);
+        verify(openLibraryCache).put(eq("clean code"), eq("OL123W"), any(), eq(response));
+    }
+
+    @Test
+    void findBookByNameReactive_Cached_SkipsRemote() {
+        ReflectionTestUtils.setField(bookService, "openLibraryTimeoutMs", 1000L);
+        BookResponse cached = new BookResponse("Clean Code", "Robert C. Martin", "A handbook");
+        when(openLibraryCache.get("clean code")).thenReturn(new OpenLibraryCache.Cached(cached));
+
+        assertSame(cached, bookService.findBookByNameOLReactive("clean code").block());
+        verifyNoInteractions(reactiveOpenLibraryService);
+    }
+
+    @Test
+    void findBookByNameReactive_NoResults_CachesMissAndThrowsBadRequest() {
+        ReflectionTestUtils.setField(bookService, "openLibraryTimeoutMs", 1000L);
+        when(reactiveOpenLibraryService.findBookByName("no such book")).thenReturn(Mono.just("{\"numFound\":0,\"docs\":[]}"));
+
+        BadRequestException ex = assertThrows(BadRequestException.class,
+                () -> bookService.findBookByNameOLReactive("no such book").block());
+
+        assertEquals("Book title : no such book not found in Open Library", ex.getMessage());
+        verify(openLibraryCache).putNotFound("no such book");
+        verify(reactiveOpenLibraryService, never()).getWorkById(any());
+    }
+
+    @Test
+    void findBookByNameReactive_SlowUpstream_ThrowsGatewayTimeout() {
+        ReflectionTestUtils.setField(bookService, "openLibraryTimeoutMs", 50L);
+        when(reactiveOpenLibraryService.findBookByName("slow")).thenReturn(Mono.never());
+
+        assertThrows(GatewayTimeoutException.class, () -> bookService.findBookByNameOLReactive("slow").block());
+        verify(openLibraryCache, never()).putNotFound(any());
+    }
+
+    @Test
+    void findBookByName_OpenLibrary_CachedMissThrowsWithoutRemote() {
+        ReflectionTestUtils.setField(bookService, "openLibraryTimeoutMs", 1000L);
+        when(openLibraryCache.get("no such book")).thenReturn(new OpenLibraryCache.Cached(null));
+
+        assertThrows(BadRequestException.class, () -> bookService.findBookByNameOLReactive("no such book").block());
+        verifyNoInteractions(reactiveOpenLibraryService);
     }
 }
@@ -0,0 +1,133 @@
+package com.inspire.tasks.book;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.inspire.tasks.book.dto.BookView;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BookSnapshotCacheTest {
+
+    BookCatalogVersion catalogVersion;
+
+    BookSnapshotCache cache;
+
+    AtomicInteger reads;
+
+    @BeforeEach
+    void setup() {
+        catalogVersion = BookCatalogVersionTest.inMemory();
+        cache = new BookSnapshotCache(new ObjectMapper(), catalogVersion, 1 << 20);
+        cache.minGzipBytes = 64;
+        reads = new AtomicInteger();
+    }
+
+    private Supplier<List<BookView>> books(int count) {
+        return () -> {
+            reads.incrementAndGet();
+            return Collections.nCopies(count, new BookView(1L, "dune", "frank herbert", "desert planet", 0));
+        };
+    }
+
+    private MockHttpServletResponse send(MockHttpServletRequest request, Supplier<?> read) throws IOException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        cache.send(request, response, "author:frank herbert", read);
+        return response;
+    }
+
+    @Test
+    void send_SameVersion_ReadsOnceAndServesCachedBytes() throws IOException {
+        MockHttpServletResponse first = send(new MockHttpServletRequest("GET", "/"), books(1));
+        MockHttpServletResponse second = send(new MockHttpServletRequest("GET", "/"), books(1));
+
+        assertEquals(1, reads.get());
+        assertEquals("application/json", second.getContentType());
+        assertEquals(first.getContentAsString(), second.getContentAsString());
+        assertTrue(second.getContentAsString().startsWith("[{\"id\":1,\"title\":\"dune\""));
+        assertEquals(catalogVersion.etag(), second.getHeader("ETag"));
+    }
+
+    @Test
+    void send_AfterBump_ReadsAgain() throws IOException {
+        send(new MockHttpServletRequest("GET", "/"), books(1));
+        catalogVersion.bump();
+        send(new MockHttpServletRequest("GET", "/"), books(1));
+
+        assertEquals(2, reads.get());
+    }
+
+    @Test
+    void send_WriteOnAnotherInstance_ReadsAgain() throws IOException {
+        CatalogVersionRepository sharedRow = BookCatalogVersionTest.sharedRow();
+        catalogVersion = new BookCatalogVersion(sharedRow, 0);
+        cache = new BookSnapshotCache(new ObjectMapper(), catalogVersion, 1 << 20);
+        send(new MockHttpServletRequest("GET", "/"), books(1));
+
+        new BookCatalogVersion(sharedRow, 0).bump();
+        send(new MockHttpServletRequest("GET", "/"), books(1));
+
+        assertEquals(2, reads.get());
+    }
+
+    @Test
+    void send_AcceptsGzip_ServesGzippedVariantWithItsOwnTag() throws IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/");
+        request.addHeader("Accept-Encoding", "gzip, deflate, br");
+
+        MockHttpServletResponse response = send(request, books(20));
+
+        assertEquals("gzip", response.getHeader("Content-Encoding"));
+        assertEquals("Accept-Encoding", response.getHeader("Vary"));
+        assertTrue(response.getHeader("ETag").endsWith("-gzip\""));
+        byte[] json;
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(response.getContentAsByteArray()))) {
+            json = in.readAllBytes();
+        }
+        assertEquals(send(new MockHttpServletRequest("GET", "/"), books(20)).getContentAsString(),
+                new String(json, StandardCharsets.UTF_8));
+        assertEquals(1, reads.get());
+    }
+
+    @Test
+    void send_SmallBody_IsNotGzipped() throws IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/");
+        request.addHeader("Accept-Encoding", "gzip");
+
+        MockHttpServletResponse response = send(request, books(0));
+
+        assertNull(response.getHeader("Content-Encoding"));
+        assertEquals("[]", response.getContentAsString());
+    }
+
+    @Test
+    void send_MatchingIfNoneMatch_ReturnsNotModifiedWithoutReading() throws IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/");
+        request.addHeader("If-None-Match", catalogVersion.etag());
+
+        MockHttpServletResponse response = send(request, books(1));
+
+        assertEquals(304, response.getStatus());
+        assertEquals(0, reads.get());
+    }
+
+    @Test
+    void acceptsGzip_HonoursZeroQuality() {
+        assertTrue(BookSnapshotCache.acceptsGzip("deflate, gzip;q=0.8"));
+        assertTrue(BookSnapshotCache.acceptsGzip("*"));
+        assertFalse(BookSnapshotCache.acceptsGzip("gzip;q=0"));
+        assertFalse(BookSnapshotCache.acceptsGzip("br"));
+        assertFalse(BookSnapshotCache.acceptsGzip(null));
+    }
+}
@@ -0,0 +1,162 @@
+package com.inspire.tasks.book.author;
+
+import com.inspire.tasks.book.BookCatalogVersion;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.BadSqlGrammarException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AuthorCatalogTest {
+
+    @Mock
+    AuthorRepository authorRepository;
+
+    @Mock
+    JdbcTemplate jdbcTemplate;
+
+    @Mock
+    PlatformTransactionManager transactionManager;
+
+    @Mock
+    EntityManagerFactory entityManagerFactory;
+
+    @Mock
+    BookCatalogVersion catalogVersion;
+
+    AuthorCatalog catalog;
+
+    @BeforeEach
+    void setup() {
+        catalog = new AuthorCatalog(authorRepository, jdbcTemplate, transactionManager, entityManagerFactory, catalogVersion);
+    }
+
+    private void existingAuthors(Map<String, Long> rows) {
+        existingAuthors(rows, Map.of());
+    }
+
+    // feeds name/id rows to the RowCallbackHandler of the author lookup; the locking
+    // re-read after inserting missing authors gets the second set
+    private void existingAuthors(Map<String, Long> rows, Map<String, Long> afterInsert) {
+        doAnswer(inv -> {
+            RowCallbackHandler handler = inv.getArgument(1);
+            String sql = inv.getArgument(0);
+            for (Map.Entry<String, Long> row : (sql.endsWith("FOR UPDATE") ? afterInsert : rows).entrySet()) {
+                ResultSet rs = mock(ResultSet.class);
+                when(rs.getString(1)).thenReturn(row.getKey());
+                when(rs.getLong(2)).thenReturn(row.getValue());
+                handler.processRow(rs);
+            }
+            return null;
+        }).when(jdbcTemplate).query(startsWith("SELECT name, id FROM authors"), any(RowCallbackHandler.class), any(Object[].class));
+    }
+
+    @Test
+    void names_SplitsTrimsAndLowercases() {
+        assertEquals(List.of("frank herbert", "brian herbert"), AuthorCatalog.names(" Frank Herbert, Brian Herbert ,frank herbert,"));
+        assertEquals(List.of(), AuthorCatalog.names(null));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void link_KnownAuthors_InsertsLinksAndAddsToCounts() throws SQLException {
+        existingAuthors(Map.of("frank herbert", 3L, "brian herbert", 9L));
+        Map<Long, String> books = new LinkedHashMap<>();
+        books.put(1L, "Frank Herbert");
+        books.put(2L, "Brian Herbert, Frank Herbert");
+
+        catalog.link(books);
+
+        ArgumentCaptor<List<Object[]>> links = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(eq(AuthorCatalog.LINK_SQL), links.capture());
+        assertEquals(3, links.getValue().size());
+
+        ArgumentCaptor<List<Object[]>> counts = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(eq(AuthorCatalog.COUNT_SQL), counts.capture());
+        assertArrayEquals(new Object[]{2, 3L}, counts.getValue().get(0));
+        assertArrayEquals(new Object[]{1, 9L}, counts.getValue().get(1));
+        verify(jdbcTemplate, never()).update(eq(AuthorCatalog.INSERT_AUTHOR_SQL), any(Object[].class));
+    }
+
+    @Test
+    void link_NewAuthor_CreatesItFirst() throws SQLException {
+        existingAuthors(Map.of(), Map.of("ursula le guin", 4L));
+
+        catalog.link(Map.of(1L, "ursula le guin"));
+
+        verify(jdbcTemplate).update(AuthorCatalog.INSERT_AUTHOR_SQL, "ursula le guin");
+        verify(jdbcTemplate).query(endsWith("FOR UPDATE"), any(RowCallbackHandler.class), any(Object[].class));
+        verify(jdbcTemplate).batchUpdate(eq(AuthorCatalog.COUNT_SQL), argThat((List<Object[]> counts) ->
+                counts.size() == 1 && counts.get(0)[1].equals(4L)));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void unlink_TakesBooksOffTheirAuthorsCounts() {
+        when(jdbcTemplate.queryForList(startsWith("SELECT author_id FROM book_authors"), eq(Long.class), any(Object[].class)))
+                .thenReturn(List.of(3L, 9L, 3L));
+
+        catalog.unlink(List.of(1L, 2L));
+
+        verify(jdbcTemplate).update(startsWith("DELETE FROM book_authors"), any(Object[].class));
+        ArgumentCaptor<List<Object[]>> counts = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(eq(AuthorCatalog.COUNT_SQL), counts.capture());
+        assertArrayEquals(new Object[]{-2, 3L}, counts.getValue().get(0));
+        assertArrayEquals(new Object[]{-1, 9L}, counts.getValue().get(1));
+    }
+
+    @Test
+    void dropAuthorNameUnique_DropsLeftoverIndexes() {
+        when(jdbcTemplate.queryForList(AuthorCatalog.AUTHOR_NAME_UNIQUE_SQL, String.class)).thenReturn(List.of("UKauthor_name"));
+
+        catalog.dropAuthorNameUnique();
+
+        verify(jdbcTemplate).execute("ALTER TABLE books DROP INDEX `UKauthor_name`");
+    }
+
+    @Test
+    void dropAuthorNameUnique_NoIndex_LeavesTheTableAlone() {
+        when(jdbcTemplate.queryForList(AuthorCatalog.AUTHOR_NAME_UNIQUE_SQL, String.class)).thenReturn(List.of());
+
+        catalog.dropAuthorNameUnique();
+
+        verify(jdbcTemplate, never()).execute(anyString());
+    }
+
+    @Test
+    void dropAuthorNameUnique_DatabaseRefuses_KeepsStarting() {
+        when(jdbcTemplate.queryForList(AuthorCatalog.AUTHOR_NAME_UNIQUE_SQL, String.class))
+                .thenThrow(new BadSqlGrammarException("statistics", AuthorCatalog.AUTHOR_NAME_UNIQUE_SQL, new SQLException()));
+
+        assertDoesNotThrow(() -> catalog.dropAuthorNameUnique());
+    }
+
+    @Test
+    void findPage_ClampsSizeAndStartsAfterName() {
+        ReflectionTestUtils.setField(catalog, "defaultPageSize", 20);
+        ReflectionTestUtils.setField(catalog, "maxPageSize", 100);
+
+        catalog.findPage(null, 500);
+
+        verify(authorRepository).findPageAfterName("", Limit.of(100));
+    }
+}
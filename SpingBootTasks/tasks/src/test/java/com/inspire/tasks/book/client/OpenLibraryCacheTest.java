@@ -0,0 +1,108 @@
+package com.inspire.tasks.book.client;
+
+import com.inspire.tasks.book.dto.BookResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OpenLibraryCacheTest {
+
+    @Mock
+    OpenLibraryLookupRepository lookupRepository;
+
+    @Mock
+    OpenLibraryWorkRepository workRepository;
+
+    OpenLibraryCache cache;
+
+    BookResponse cleanCode = new BookResponse("Clean Code", "Robert C. Martin", "A handbook");
+
+    @BeforeEach
+    void setup() {
+        cache = new OpenLibraryCache(lookupRepository, workRepository, 100, 3600, 24, 600);
+    }
+
+    @Test
+    void key_IgnoresCaseAndSpacing() {
+        assertEquals("clean code", OpenLibraryCache.key("  Clean   CODE "));
+    }
+
+    @Test
+    void get_AfterPut_ServedFromMemory() {
+        cache.put("Clean Code", "OL123W", "{}", cleanCode);
+
+        assertSame(cleanCode, cache.get("clean  code").book());
+        verify(lookupRepository, never()).findById(any());
+        verify(workRepository).save(any(OpenLibraryWork.class));
+        ArgumentCaptor<OpenLibraryLookup> stored = ArgumentCaptor.forClass(OpenLibraryLookup.class);
+        verify(lookupRepository).save(stored.capture());
+        assertEquals("clean code", stored.getValue().getQueryKey());
+        assertEquals("OL123W", stored.getValue().getWorkId());
+    }
+
+    @Test
+    void get_StoredRow_IsPromotedToMemory() {
+        when(lookupRepository.findById("clean code")).thenReturn(Optional.of(new OpenLibraryLookup("clean code", "OL123W",
+                "Clean Code", "Robert C. Martin", "A handbook", Instant.now().minus(Duration.ofHours(1)))));
+
+        assertEquals(cleanCode, cache.get("Clean Code").book());
+        assertEquals(cleanCode, cache.get("Clean Code").book());
+
+        verify(lookupRepository, times(1)).findById("clean code");
+        assertEquals(1L, cache.metrics().get("storeHits"));
+        assertEquals(1L, cache.metrics().get("memoryHits"));
+    }
+
+    @Test
+    void get_ExpiredRow_IsAMiss() {
+        when(lookupRepository.findById("clean code")).thenReturn(Optional.of(new OpenLibraryLookup("clean code", "OL123W",
+                "Clean Code", "Robert C. Martin", "A handbook", Instant.now().minus(Duration.ofHours(25)))));
+
+        assertNull(cache.get("clean code"));
+    }
+
+    @Test
+    void get_StoredMiss_ExpiresAfterNegativeTtl() {
+        when(lookupRepository.findById("no such book"))
+                .thenReturn(Optional.of(new OpenLibraryLookup("no such book", null, null, null, null,
+                        Instant.now().minus(Duration.ofMinutes(5)))))
+                .thenReturn(Optional.of(new OpenLibraryLookup("no such book", null, null, null, null,
+                        Instant.now().minus(Duration.ofMinutes(15)))));
+
+        assertFalse(cache.get("no such book").found());
+        assertEquals(1L, cache.metrics().get("notFoundHits"));
+
+        cache = new OpenLibraryCache(lookupRepository, workRepository, 100, 3600, 24, 600);
+        assertNull(cache.get("no such book"));
+    }
+
+    @Test
+    void getWork_FreshDocument_ReturnsIt() {
+        when(workRepository.findById("OL123W")).thenReturn(Optional.of(new OpenLibraryWork("OL123W", "{}", Instant.now())));
+
+        assertEquals("{}", cache.getWork("OL123W"));
+    }
+
+    @Test
+    void put_StoreUnavailable_StillCachesInMemory() {
+        when(lookupRepository.save(any())).thenThrow(new DataAccessResourceFailureException("down"));
+
+        cache.putNotFound("no such book");
+
+        assertFalse(cache.get("no such book").found());
+        verify(lookupRepository, never()).findById(any());
+    }
+}
@@ -0,0 +1,70 @@
+package com.inspire.tasks.book.search;
+
+import com.inspire.tasks.book.Book;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BookSearchIndexTest {
+
+    BookSearchIndex index;
+
+    @BeforeEach
+    void setup() {
+        index = new BookSearchIndex(null, null);
+        index.index(book(1, "dune", "frank herbert", "a desert planet and its spice"));
+        index.index(book(2, "emma", "jane austen", "a novel about youthful hubris"));
+        index.index(book(3, "dune messiah", "frank herbert", "the sequel to dune"));
+    }
+
+    private Book book(long id, String title, String author, String description) {
+        Book book = new Book(title, author, description, null);
+        book.setId(id);
+        return book;
+    }
+
+    @Test
+    void search_RanksMoreFrequentTermHigher() {
+        assertEquals(List.of(3L, 1L), index.search("Dune", 10));
+    }
+
+    @Test
+    void search_MatchesAcrossFields() {
+        assertEquals(List.of(2L), index.search("austen novel", 10));
+        assertEquals(List.of(), index.search("tolkien", 10));
+    }
+
+    @Test
+    void search_RespectsLimit() {
+        assertEquals(1, index.search("herbert", 1).size());
+    }
+
+    @Test
+    void index_ReplacesPreviousVersionOfBook() {
+        index.index(book(2, "persuasion", "jane austen", "second chances"));
+
+        assertEquals(List.of(), index.search("emma", 10));
+        assertEquals(List.of(2L), index.search("persuasion", 10));
+        assertEquals(3, index.metrics().get("books"));
+    }
+
+    @Test
+    void remove_DropsBookAndReusesItsSlot() {
+        index.remove(1L);
+
+        assertEquals(List.of(3L), index.search("spice dune", 10));
+        assertEquals(1, index.metrics().get("freeSlots"));
+
+        index.index(book(4, "dracula", "bram stoker", "vampires"));
+        assertEquals(List.of(4L), index.search("vampires", 10));
+        assertEquals(0, index.metrics().get("freeSlots"));
+    }
+
+    @Test
+    void tokenize_SplitsOnPunctuationAndLowercases() {
+        assertEquals(List.of("sci", "fi", "2001"), Tokenizer.tokenize("Sci-Fi, 2001!"));
+    }
+}
@@ -0,0 +1,70 @@
+package com.inspire.tasks.book.search;
+
+import com.inspire.tasks.book.Book;
+import com.inspire.tasks.book.dto.TitleSuggestion;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TitleSuggesterTest {
+
+    TitleSuggester suggester;
+
+    @BeforeEach
+    void setup() {
+        suggester = new TitleSuggester(null, null, 0.3);
+        suggester.index(book(1, "dune"));
+        suggester.index(book(2, "dune messiah"));
+        suggester.index(book(3, "dracula"));
+        suggester.index(book(4, "emma"));
+    }
+
+    private Book book(long id, String title) {
+        Book book = new Book(title, "author", "desc", null);
+        book.setId(id);
+        return book;
+    }
+
+    private List<String> titles(List<TitleSuggestion> suggestions) {
+        return suggestions.stream().map(TitleSuggestion::title).toList();
+    }
+
+    @Test
+    void suggest_Prefix_ReturnsCompletionsAlphabetically() {
+        assertEquals(List.of("dune", "dune messiah"), titles(suggester.suggest("Dun", 2)));
+        assertEquals(List.of("dracula", "dune", "dune messiah"), titles(suggester.suggest("d", 3)));
+        assertEquals(1.0, suggester.suggest("dune m", 1).get(0).score());
+    }
+
+    @Test
+    void suggest_Typo_FallsBackToTrigramMatches() {
+        List<TitleSuggestion> suggestions = suggester.suggest("dracola", 3);
+
+        assertEquals("dracula", suggestions.get(0).title());
+        assertTrue(suggestions.get(0).score() < 1.0);
+    }
+
+    @Test
+    void remove_DropsTitleAndMergesEdges() {
+        suggester.remove(1L);
+
+        assertEquals(List.of("dune messiah"), titles(suggester.suggest("dune", 5)));
+
+        suggester.remove(2L);
+
+        assertEquals(List.of(), titles(suggester.suggest("dune", 5)));
+        assertEquals(List.of("dracula"), titles(suggester.suggest("dr", 5)));
+    }
+
+    @Test
+    void index_RenamedBook_ReplacesOldTitle() {
+        suggester.index(book(4, "persuasion"));
+
+        assertEquals(List.of(), titles(suggester.suggest("emm", 5)));
+        assertEquals(List.of("persuasion"), titles(suggester.suggest("pers", 5)));
+        assertEquals(4, suggester.metrics().get("titles"));
+    }
+}
@@ -0,0 +1,59 @@
+package com.inspire.tasks.roles;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RoleRegistryTest {
+
+    @Mock
+    RoleRepository roleRepository;
+
+    @InjectMocks
+    RoleRegistry roleRegistry;
+
+    private Role role(int id, RoleTypes name) {
+        Role role = new Role(name);
+        role.setId(id);
+        return role;
+    }
+
+    @Test
+    void get_LoadedRole_DoesNotQueryRepositoryAgain() {
+        Role userRole = role(1, RoleTypes.ROLE_USER);
+        when(roleRepository.findAll()).thenReturn(List.of(userRole));
+        roleRegistry.refresh();
+
+        assertSame(userRole, roleRegistry.get(RoleTypes.ROLE_USER));
+        assertSame(userRole, roleRegistry.get(RoleTypes.ROLE_USER));
+        verify(roleRepository, times(1)).findAll();
+    }
+
+    @Test
+    void get_MissingRole_RefreshesOnce() {
+        Role adminRole = role(3, RoleTypes.ROLE_ADMIN);
+        when(roleRepository.findAll())
+                .thenReturn(List.of())
+                .thenReturn(List.of(adminRole));
+        roleRegistry.refresh();
+
+        assertSame(adminRole, roleRegistry.get(RoleTypes.ROLE_ADMIN));
+        verify(roleRepository, times(2)).findAll();
+    }
+
+    @Test
+    void get_UnknownRole_Throws() {
+        when(roleRepository.findAll()).thenReturn(List.of());
+
+        RuntimeException ex = assertThrows(RuntimeException.class, () -> roleRegistry.get(RoleTypes.ROLE_AUTHOR));
+        assertEquals("Error: Role is not found.", ex.getMessage());
+    }
+}
@@ -5,6 +5,7 @@ import com.inspire.tasks.auth.TestSecurityConfig;
 import com.inspire.tasks.auth.jwt.AuthTokenFilter;
 import com.inspire.tasks.auth.dto.SignupRequest;
 import com.inspire.tasks.common.MessageResponse;
+import com.inspire.tasks.roles.RoleRegistry;
 import com.inspire.tasks.roles.RoleRepository;
 import org.junit.jupiter.api.Test;
 import org.mockito.Spy;
@@ -26,6 +27,7 @@ import java.util.Map;
 import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.hasSize;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -51,6 +53,9 @@ class AdminRestControllerTest {
     @MockitoBean
     RoleRepository roleRepository;
 
+    @MockitoBean
+    RoleRegistry roleRegistry;
+
     @MockitoBean
     PasswordEncoder encoder;
 
@@ -134,6 +139,16 @@ class AdminRestControllerTest {
                 .andExpect(jsonPath("$.message", containsString("User id is not allowed")));
     }
 
+    @WithMockUser(roles = "ADMIN")
+    @Test
+    void refreshRoles_ReloadsRegistry() throws Exception {
+        mockMvc.perform(post("/api/admin/roles/refresh"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.message").value("Roles reloaded successfully!"));
+
+        verify(roleRegistry).refresh();
+    }
+
     @WithMockUser(roles = "ADMIN")
     @Test
     void deleteUser_ReturnsSuccess() throws Exception {
@@ -0,0 +1,62 @@
+package com.inspire.tasks.user;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserDetailsCacheTest {
+
+    @Mock
+    UserDetailsServiceImpl userDetailsService;
+
+    UserDetailsCache userDetailsCache;
+
+    private UserDetailsImpl john;
+
+    @BeforeEach
+    void setup() {
+        userDetailsCache = new UserDetailsCache(userDetailsService, 100, 60);
+        john = new UserDetailsImpl(1L, "john", "john@example.com", "encoded-pass", List.of());
+    }
+
+    @Test
+    void loadUserByUsername_SecondCall_IsServedFromCache() {
+        when(userDetailsService.loadUserByUsername("john")).thenReturn(john);
+
+        assertSame(john, userDetailsCache.loadUserByUsername("john"));
+        assertSame(john, userDetailsCache.loadUserByUsername("john"));
+
+        verify(userDetailsService, times(1)).loadUserByUsername("john");
+        assertEquals(1L, userDetailsCache.metrics().get("hits"));
+        assertEquals(1L, userDetailsCache.metrics().get("misses"));
+    }
+
+    @Test
+    void evictByUserId_ForcesReload() {
+        when(userDetailsService.loadUserByUsername("john")).thenReturn(john);
+
+        userDetailsCache.loadUserByUsername("john");
+        userDetailsCache.evictByUserId(1L);
+        userDetailsCache.loadUserByUsername("john");
+
+        verify(userDetailsService, times(2)).loadUserByUsername("john");
+    }
+
+    @Test
+    void loadUserByUsername_UnknownUser_IsNotCached() {
+        when(userDetailsService.loadUserByUsername("ghost"))
+                .thenThrow(new UsernameNotFoundException("User Not Found with username: ghost"));
+
+        assertThrows(UsernameNotFoundException.class, () -> userDetailsCache.loadUserByUsername("ghost"));
+        assertEquals(0L, userDetailsCache.metrics().get("size"));
+    }
+}
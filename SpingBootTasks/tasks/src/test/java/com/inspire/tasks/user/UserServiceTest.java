@@ -4,7 +4,7 @@ import com.inspire.tasks.common.exception.BadRequestException;
 import com.inspire.tasks.auth.dto.SignupRequest;
 import com.inspire.tasks.common.MessageResponse;
 import com.inspire.tasks.roles.Role;
-import com.inspire.tasks.roles.RoleRepository;
+import com.inspire.tasks.roles.RoleRegistry;
 import com.inspire.tasks.roles.RoleTypes;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -13,6 +13,7 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
 import java.util.List;
@@ -29,11 +30,17 @@ public class UserServiceTest {
     private UserRepository userRepository;
 
     @Mock
-    private RoleRepository roleRepository;
+    private RoleRegistry roleRegistry;
 
     @Mock
     private PasswordEncoder encoder;
 
+    @Mock
+    private UserDetailsCache userDetailsCache;
+
+    @Mock
+    private SecurityVersionCache securityVersionCache;
+
     @InjectMocks
     private UserService userService;
 
@@ -72,7 +79,7 @@ public class UserServiceTest {
         when(userRepository.existsByUsername("John")).thenReturn(false);
         when(userRepository.existsByEmail("john@example.com")).thenReturn(false);
         when(encoder.encode("12345password")).thenReturn("encoded-pass");
-        when(roleRepository.findByName(RoleTypes.ROLE_USER)).thenReturn(Optional.of(userRole));
+        when(roleRegistry.get(RoleTypes.ROLE_USER)).thenReturn(userRole);
         when(userRepository.save(any(User.class))).thenAnswer(i -> i.getArgument(0));
 
         ResponseEntity<?> response = userService.createUser(signupRequest);
@@ -82,7 +89,7 @@ public class UserServiceTest {
         assertEquals("User registered successfully!", body.getMessage());
         assertEquals(200, body.getCode());
 
-        verify(roleRepository).findByName(RoleTypes.ROLE_USER);
+        verify(roleRegistry).get(RoleTypes.ROLE_USER);
     }
 
     // Test ROLE_AUTHOR
@@ -93,7 +100,7 @@ public class UserServiceTest {
         when(userRepository.existsByUsername("John")).thenReturn(false);
         when(userRepository.existsByEmail("john@example.com")).thenReturn(false);
         when(encoder.encode("12345password")).thenReturn("encoded-pass");
-        when(roleRepository.findByName(RoleTypes.ROLE_AUTHOR)).thenReturn(Optional.of(authRole));
+        when(roleRegistry.get(RoleTypes.ROLE_AUTHOR)).thenReturn(authRole);
         when(userRepository.save(any(User.class))).thenAnswer(i -> i.getArgument(0));
 
         ResponseEntity<?> response = userService.createUser(signupRequest);
@@ -102,7 +109,7 @@ public class UserServiceTest {
         MessageResponse body = (MessageResponse) response.getBody();
         assertEquals("User registered successfully!", body.getMessage());
         assertTrue(body.getMessage().contains("successfully"));
-        verify(roleRepository).findByName(RoleTypes.ROLE_AUTHOR);
+        verify(roleRegistry).get(RoleTypes.ROLE_AUTHOR);
     }
 
     // Test ROLE_ADMIN
@@ -113,7 +120,7 @@ public class UserServiceTest {
         when(userRepository.existsByUsername("John")).thenReturn(false);
         when(userRepository.existsByEmail("john@example.com")).thenReturn(false);
         when(encoder.encode("12345password")).thenReturn("encoded-pass");
-        when(roleRepository.findByName(RoleTypes.ROLE_ADMIN)).thenReturn(Optional.of(adminRole));
+        when(roleRegistry.get(RoleTypes.ROLE_ADMIN)).thenReturn(adminRole);
         when(userRepository.save(any(User.class))).thenAnswer(i -> i.getArgument(0));
 
         ResponseEntity<?> response = userService.createUser(signupRequest);
@@ -121,7 +128,7 @@ public class UserServiceTest {
         assertEquals(200, response.getStatusCodeValue());
         MessageResponse body = (MessageResponse) response.getBody();
         assertEquals("User registered successfully!", body.getMessage());
-        verify(roleRepository).findByName(RoleTypes.ROLE_ADMIN);
+        verify(roleRegistry).get(RoleTypes.ROLE_ADMIN);
     }
 
 @Test
@@ -182,6 +189,8 @@ public class UserServiceTest {
         assertEquals("User has been deleted successfully!", body.getMessage());
 
         verify(userRepository).deleteById(1L);
+        verify(userDetailsCache).evictByUserId(1L);
+        verify(securityVersionCache).markDeleted(1L);
     }
 
     @Test
@@ -194,6 +203,10 @@ public class UserServiceTest {
         assertEquals("User updated successfully!", ((MessageResponse) response.getBody()).getMessage());
 
         verify(userRepository).save(user);
+        verify(userDetailsCache).evict("john");
+        verify(userDetailsCache).evictByUserId(1L);
+        assertEquals(1L, user.getSecurityVersion());
+        verify(securityVersionCache).update(1L, 1L);
     }
 
     @Test
@@ -213,6 +226,25 @@ public class UserServiceTest {
         assertTrue(ex.getMessage().contains("Username: unknown"));
     }
 
+    @Test
+    void referenceByUsername_UsesCachedPrincipalId() {
+        when(userDetailsCache.loadUserByUsername("john")).thenReturn(new UserDetailsImpl(1L, "john", "john@example.com",
+                "encoded-pass", List.of(), 0L));
+        when(userRepository.getReferenceById(1L)).thenReturn(user);
+
+        assertSame(user, userService.referenceByUsername("john"));
+        verify(userRepository, never()).findByUsername(any());
+    }
+
+    @Test
+    void referenceByUsername_NotFound_ThrowsException() {
+        when(userDetailsCache.loadUserByUsername("unknown")).thenThrow(new UsernameNotFoundException("unknown"));
+
+        BadRequestException ex = assertThrows(BadRequestException.class,
+                () -> userService.referenceByUsername("unknown"));
+        assertEquals("Username: unknown doesn't exists", ex.getMessage());
+    }
+
     @Test
     void existsByUsername_ReturnsTrue() {
         when(userRepository.existsByUsername("john")).thenReturn(true);